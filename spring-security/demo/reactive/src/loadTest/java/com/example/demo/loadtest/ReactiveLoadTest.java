@@ -0,0 +1,191 @@
+package com.example.demo.loadtest;
+
+import com.example.demo.User.Member;
+import com.example.demo.loadtest.LoadTestSettings.Operation;
+import com.example.demo.reactive.ReactiveApplication;
+import com.example.demo.util.JwtTokenProvider;
+import org.assertj.core.api.SoftAssertions;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+* reactive 게이트웨이(ReactiveSecurityConfig) 부하 테스트. 루트 AuthLoadTest와 같은 설정(LoadTestSettings)과 측정(LatencyRecorder)을 쓴다.
+* 게이트웨이는 토큰 검증만 하므로 가상 사용자는 JwtTokenProvider로 직접 발급한 토큰을 들고 /api1, /api2만 보낸다.
+* 서블릿 쪽은 같은 비율로 loadTestServletApi를 돌려서 ./gradlew loadTestStackCompare 로 비교한다.
+* */
+@SpringBootTest(classes = ReactiveApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "logging.level.com.example.demo=WARN")
+@ActiveProfiles("reactive")
+class ReactiveLoadTest {
+
+    private static RedisServer redisServer;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @DynamicPropertySource
+    static void redisProperties(DynamicPropertyRegistry registry) {
+        try {
+            int redisPort;
+            try (ServerSocket socket = new ServerSocket(0)) {
+                redisPort = socket.getLocalPort();
+            }
+            redisServer = new RedisServer(redisPort);
+            redisServer.start();
+            registry.add("spring.data.redis.port", () -> redisPort);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        if (redisServer != null) redisServer.stop();
+    }
+
+    @Test
+    void 토큰_검증_부하에서_예산을_지킨다() throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+
+        long start = System.nanoTime();
+        long measureFrom = start + Duration.ofSeconds(settings.warmupSeconds()).toNanos();
+        long end = measureFrom + Duration.ofSeconds(settings.durationSeconds()).toNanos();
+
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        List<Future<Stats>> futures = new ArrayList<>();
+        for (int i = 0; i < settings.concurrency(); i++) {
+            String accessToken = issue("loaduser" + i);
+            futures.add(executor.submit(() -> run(accessToken, settings, measureFrom, end)));
+        }
+        Stats total = new Stats();
+        for (Future<Stats> future : futures) {
+            total.merge(future.get());
+        }
+        executor.shutdown();
+
+        report(settings, total);
+    }
+
+    private String issue(String username) {
+        Member member = Member.builder()
+                .username(username)
+                .password("")
+                .roles(new ArrayList<>(List.of("user", "admin")))
+                .build();
+        return jwtTokenProvider.createToken(member).getAccessToken();
+    }
+
+    private Stats run(String accessToken, LoadTestSettings settings, long measureFrom, long end) {
+        Stats stats = new Stats();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long now;
+        while ((now = System.nanoTime()) < end) {
+            Operation operation = settings.pick(random.nextInt(settings.mixTotal()));
+            String path = operation == Operation.API2 ? "/api2" : "/api1";
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                    .header("Authorization", "Bearer " + accessToken)
+                    .GET()
+                    .build();
+            int status;
+            try {
+                status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (IOException e) {
+                status = -1;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (now >= measureFrom) {
+                stats.record(System.nanoTime() - now, status);
+            }
+        }
+        return stats;
+    }
+
+    private void report(LoadTestSettings settings, Stats total) throws IOException {
+        String name = System.getProperty("loadtest.name", "reactive");
+        double throughput = total.requests / (double) settings.durationSeconds();
+        double errorRate = total.requests == 0 ? 1.0 : (double) total.errors / total.requests;
+        LatencyRecorder all = total.latencies;
+
+        System.out.println(String.format("%n[loadtest] %s concurrency=%d duration=%ds throughput=%.1f req/s errors=%d%n"
+                        + "  API      count=%-8d p50=%.2fms p90=%.2fms p99=%.2fms p99.9=%.2fms",
+                name, settings.concurrency(), settings.durationSeconds(), throughput, total.errors,
+                all.count(), all.percentileMillis(50), all.percentileMillis(90),
+                all.percentileMillis(99), all.percentileMillis(99.9)));
+        //AuthLoadTest와 같은 형식이라 루트의 비교 task가 그대로 읽을 수 있다. (pinned는 event loop라 해당 없음)
+        String json = "{\"name\":\"" + name + '"'
+                + ",\"concurrency\":" + settings.concurrency()
+                + ",\"durationSeconds\":" + settings.durationSeconds()
+                + ",\"throughput\":" + String.format("%.2f", throughput)
+                + ",\"errorRate\":" + String.format("%.5f", errorRate)
+                + ",\"pinnedEvents\":0"
+                + ",\"operations\":{\"API\":{\"count\":" + all.count()
+                + ",\"p50\":" + String.format("%.3f", all.percentileMillis(50))
+                + ",\"p90\":" + String.format("%.3f", all.percentileMillis(90))
+                + ",\"p99\":" + String.format("%.3f", all.percentileMillis(99))
+                + ",\"p999\":" + String.format("%.3f", all.percentileMillis(99.9))
+                + "}},\"p99\":" + String.format("%.3f", all.percentileMillis(99)) + '}';
+
+        Path dir = Path.of(System.getProperty("loadtest.results-dir", "build/results/loadtest"));
+        Files.createDirectories(dir);
+        Files.writeString(dir.resolve(name + ".json"), json);
+
+        if (!settings.enforceBudget()) return;
+        SoftAssertions softly = new SoftAssertions();
+        softly.assertThat(all.percentileMillis(99)).as("p99(ms)").isLessThanOrEqualTo(settings.p99BudgetMillis());
+        softly.assertThat(throughput).as("throughput(req/s)").isGreaterThanOrEqualTo(settings.minThroughput());
+        softly.assertThat(errorRate).as("error rate").isLessThanOrEqualTo(settings.maxErrorRate());
+        softly.assertAll();
+    }
+
+    private static final class Stats {
+        private final LatencyRecorder latencies = new LatencyRecorder();
+        private long requests;
+        private long errors;
+
+        void record(long elapsedNanos, int status) {
+            latencies.record(elapsedNanos);
+            requests++;
+            if (status < 200 || status >= 300) errors++;
+        }
+
+        void merge(Stats other) {
+            latencies.merge(other.latencies);
+            requests += other.requests;
+            errors += other.errors;
+        }
+    }
+}
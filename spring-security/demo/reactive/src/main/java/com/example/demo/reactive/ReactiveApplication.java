@@ -0,0 +1,31 @@
+package com.example.demo.reactive;
+
+import com.example.demo.service.RedisCircuitBreaker;
+import com.example.demo.service.RevocationEpochs;
+import com.example.demo.util.AuthMetrics;
+import com.example.demo.util.JwtKeyRing;
+import com.example.demo.util.JwtTokenProvider;
+import com.example.demo.util.VerifiedTokenCache;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.security.reactive.ReactiveUserDetailsServiceAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/*
+* WebFlux(reactive) 게이트웨이 노드. 서블릿 노드(DemoApplication)가 발급한 토큰을 검증만 한다.
+* 토큰 검증, 서명 키, 검증 캐시, 로그아웃 epoch는 서블릿 모듈의 컴포넌트를 그대로 가져다 쓴다.
+* 사용자 인증(로그인)은 서블릿 노드에서만 하므로 기본 in-memory 사용자는 만들지 않는다.
+* */
+@SpringBootApplication(exclude = ReactiveUserDetailsServiceAutoConfiguration.class)
+@EnableScheduling
+@Import({JwtKeyRing.class, JwtTokenProvider.class, VerifiedTokenCache.class, AuthMetrics.class,
+        RedisCircuitBreaker.class, RevocationEpochs.class})
+public class ReactiveApplication {
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(ReactiveApplication.class)
+                .profiles("reactive")
+                .run(args);
+    }
+}
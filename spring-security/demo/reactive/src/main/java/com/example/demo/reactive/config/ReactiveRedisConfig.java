@@ -0,0 +1,26 @@
+package com.example.demo.reactive.config;
+
+import com.example.demo.service.RevocationEpochs;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/*
+* Redis 조회는 Spring Boot가 만드는 ReactiveStringRedisTemplate(reactive Lettuce)을 쓴다.
+* 서블릿 노드와 같은 문자열 key 규칙(RedisKeys)을 쓴다.
+* */
+@Configuration
+public class ReactiveRedisConfig {
+
+    //로그아웃 이벤트(pub/sub)를 받아서 로컬 로그아웃 epoch를 갱신 (서블릿 RedisConfig와 같음)
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory redisConnectionFactory,
+                                                                       RevocationEpochs revocationEpochs) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(revocationEpochs, new ChannelTopic(RevocationEpochs.CHANNEL));
+        return container;
+    }
+}
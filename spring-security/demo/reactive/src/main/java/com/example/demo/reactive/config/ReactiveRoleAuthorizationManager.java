@@ -0,0 +1,33 @@
+package com.example.demo.reactive.config;
+
+import com.example.demo.util.AuthorityRegistry;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.ReactiveAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.server.authorization.AuthorizationContext;
+import reactor.core.publisher.Mono;
+
+// RoleAuthorizationManager의 reactive 버전. RoleSet의 비트 하나만 검사한다.
+public final class ReactiveRoleAuthorizationManager implements ReactiveAuthorizationManager<AuthorizationContext> {
+
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+    private final long bit;
+
+    private ReactiveRoleAuthorizationManager(long bit) {
+        this.bit = bit;
+    }
+
+    public static ReactiveRoleAuthorizationManager hasRole(String role) {
+        return new ReactiveRoleAuthorizationManager(AuthorityRegistry.bit(AuthorityRegistry.ROLE_PREFIX + role));
+    }
+
+    @Override
+    public Mono<AuthorizationDecision> check(Mono<Authentication> authentication, AuthorizationContext context) {
+        return authentication
+                .filter(Authentication::isAuthenticated)
+                .map(current -> AuthorityRegistry.roleSetOf(current).contains(bit) ? GRANTED : DENIED)
+                .defaultIfEmpty(DENIED);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.demo.reactive.config;
+
+import com.example.demo.config.RouteTable;
+import com.example.demo.config.Routes;
+import com.example.demo.reactive.filter.ReactiveJwtVerificationFilter;
+import com.example.demo.reactive.service.ReactiveRedisService;
+import com.example.demo.service.RevocationEpochs;
+import com.example.demo.util.AuthMetrics;
+import com.example.demo.util.JwtTokenProvider;
+import com.example.demo.util.VerifiedTokenCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.authorization.HttpStatusServerAccessDeniedHandler;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+
+// SecurityConfig의 reactive 버전 (경로별 권한, 401/403 응답을 같게 맞춘다)
+// 경로별 권한은 서블릿 체인과 같은 규칙(Routes)을 pathMatchers로 옮겨서 만든다.
+@Configuration
+@EnableWebFluxSecurity
+@RequiredArgsConstructor
+public class ReactiveSecurityConfig {
+
+    private final JwtTokenProvider jwtTokenProvider;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final RevocationEpochs revocationEpochs;
+    private final AuthMetrics authMetrics;
+    private final ReactiveRedisService reactiveRedisService;
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+        return http
+                //token을 사용하는 방식이기 때문에 csrf, 세션 저장, 폼 로그인을 사용하지 않는다.
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+                .logout(ServerHttpSecurity.LogoutSpec::disable)
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .authorizeExchange(exchanges -> authorize(exchanges, Routes.table()))
+                .exceptionHandling(exceptionHandling -> exceptionHandling
+                        .authenticationEntryPoint(new HttpStatusServerEntryPoint(HttpStatus.UNAUTHORIZED))
+                        .accessDeniedHandler(new HttpStatusServerAccessDeniedHandler(HttpStatus.FORBIDDEN)))
+                .addFilterAt(new ReactiveJwtVerificationFilter(jwtTokenProvider, verifiedTokenCache,
+                        revocationEpochs, authMetrics, reactiveRedisService), SecurityWebFiltersOrder.AUTHENTICATION)
+                .build();
+    }
+
+    // pathMatchers는 선언 순서대로 처음 맞는 규칙을 쓰므로 RouteTable.routes()의 순서(가장 구체적인 것부터) 그대로 넣는다.
+    private static void authorize(ServerHttpSecurity.AuthorizeExchangeSpec exchanges, RouteTable routeTable) {
+        for (RouteTable.Route route : routeTable.routes()) {
+            access(exchanges.pathMatchers(route.pattern()), route);
+        }
+        access(exchanges.anyExchange(), routeTable.defaultRoute());
+    }
+
+    private static void access(ServerHttpSecurity.AuthorizeExchangeSpec.Access access, RouteTable.Route route) {
+        switch (route.access()) {
+            case PERMIT_ALL -> access.permitAll();
+            case AUTHENTICATED -> access.authenticated();
+            case ROLE -> access.access(ReactiveRoleAuthorizationManager.hasRole(route.role()));
+            case CUSTOM -> throw new IllegalStateException("reactive 체인으로 옮길 수 없는 규칙입니다. " + route.pattern());
+        }
+    }
+}
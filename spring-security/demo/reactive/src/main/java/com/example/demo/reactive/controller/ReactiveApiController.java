@@ -0,0 +1,20 @@
+package com.example.demo.reactive.controller;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+// 서블릿 노드의 MemberThymeleafController /api1, /api2와 같은 응답
+@RestController
+public class ReactiveApiController {
+
+    @GetMapping("/api1")
+    public Mono<String> api1() {
+        return Mono.just("api1 입니다.");
+    }
+
+    @GetMapping("/api2")
+    public Mono<String> api2() {
+        return Mono.just("api2 입니다.");
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.demo.reactive.filter;
+
+import com.example.demo.dto.VerifiedToken;
+import com.example.demo.error.RedisUnavailableException;
+import com.example.demo.reactive.service.ReactiveRedisService;
+import com.example.demo.service.RevocationEpochs;
+import com.example.demo.util.AuthMetrics;
+import com.example.demo.util.AuthMetrics.VerifyOutcome;
+import com.example.demo.util.JwtTokenProvider;
+import com.example.demo.util.RedisKeys;
+import com.example.demo.util.VerifiedTokenCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * JwtVerificationFilter의 reactive 버전. 순서는 같다 : 검증 캐시 -> 서명 검증(JwtTokenProvider.verify) -> 로그아웃 epoch 확인
+ * 서명 검증은 수 마이크로초 걸리는 CPU 작업이고 로그아웃 확인은 로컬 map 조회라서 event loop에서 바로 한다.
+ * 이전 형식 로그아웃 key(bl:)를 확인하는 기간에는 캐시에 없는 토큰만 reactive Redis로 한 번 더 확인한다. (RevocationEpochs.isLegacyRevoked)
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ReactiveJwtVerificationFilter implements WebFilter {
+
+    private static final String BEARER_PREFIX = "Bearer";
+
+    private final JwtTokenProvider jwtTokenProvider;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final RevocationEpochs revocationEpochs;
+    private final AuthMetrics authMetrics;
+    private final ReactiveRedisService reactiveRedisService;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        long start = System.nanoTime();
+        String accessToken = resolveAccessToken(exchange);
+        Authentication authentication = null;
+        VerifyOutcome outcome;
+        if (!StringUtils.hasText(accessToken)) {
+            outcome = VerifyOutcome.MISSING;
+        } else if ((authentication = verifiedTokenCache.get(accessToken)) != null) {
+            outcome = VerifyOutcome.CACHED;
+        } else {
+            long parseStart = System.nanoTime();
+            VerifiedToken verifiedToken = jwtTokenProvider.verify(accessToken);
+            authMetrics.parse(System.nanoTime() - parseStart);
+            outcome = AuthMetrics.outcomeOf(verifiedToken);
+            if (outcome == VerifyOutcome.VERIFIED) {
+                authentication = jwtTokenProvider.getAuthentication(verifiedToken, accessToken);
+                if (revocationEpochs.checksLegacyDenylist()) {
+                    return checkLegacyDenylist(exchange, chain, accessToken, authentication, verifiedToken.getExpiresAt(), start);
+                }
+                verifiedTokenCache.put(accessToken, authentication, verifiedToken.getExpiresAt());
+            }
+        }
+        return proceed(exchange, chain, authentication, outcome, start);
+    }
+
+    // bl: key가 없다고 확인됐을 때만 캐시에 넣는다. Redis를 못 쓰면 거절하고 캐시하지 않는다. (fail-closed, 서블릿 필터와 같음)
+    private Mono<Void> checkLegacyDenylist(ServerWebExchange exchange, WebFilterChain chain, String accessToken,
+                                          Authentication authentication, long expiresAt, long start) {
+        return reactiveRedisService.getValues(RedisKeys.legacyLogout(accessToken))
+                .map(value -> reactiveRedisService.checkExistsValue(value) ? VerifyOutcome.REVOKED : VerifyOutcome.VERIFIED)
+                .onErrorReturn(RedisUnavailableException.class, VerifyOutcome.UNAVAILABLE)
+                .flatMap(outcome -> {
+                    if (outcome != VerifyOutcome.VERIFIED) {
+                        return proceed(exchange, chain, null, outcome, start);
+                    }
+                    verifiedTokenCache.put(accessToken, authentication, expiresAt);
+                    return proceed(exchange, chain, authentication, outcome, start);
+                });
+    }
+
+    private Mono<Void> proceed(ServerWebExchange exchange, WebFilterChain chain, Authentication authentication,
+                               VerifyOutcome outcome, long start) {
+        if (authentication != null && revocationEpochs.isRevoked(authentication)) {
+            outcome = VerifyOutcome.REVOKED;
+            authentication = null;
+        }
+        authMetrics.verify(outcome, System.nanoTime() - start);
+        if (authentication == null) {
+            log.debug("ReactiveJwtVerificationFilter 실패 : {}", outcome);
+            return chain.filter(exchange);
+        }
+        return chain.filter(exchange)
+                .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication));
+    }
+
+    // JwtTokenProvider.resolveAccessToken과 같은 규칙 ("Bearer" 다음 7번째 글자부터)
+    private String resolveAccessToken(ServerWebExchange exchange) {
+        String bearerToken = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (StringUtils.hasText(bearerToken) && bearerToken.startsWith(BEARER_PREFIX)) {
+            return bearerToken.substring(7);
+        }
+        return null;
+    }
+}
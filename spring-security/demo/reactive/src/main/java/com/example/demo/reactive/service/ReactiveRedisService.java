@@ -0,0 +1,66 @@
+package com.example.demo.reactive.service;
+
+import com.example.demo.error.RedisUnavailableException;
+import com.example.demo.util.AuthMetrics;
+import com.example.demo.util.AuthMetrics.RedisOutcome;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/*
+* RedisService의 non-blocking 버전 (reactive Lettuce)
+* 호출별 지연 예산(budget)을 timeout으로 걸고, 실패하거나 예산을 넘기면 RedisUnavailableException으로 끝난다.
+* 호출하는 쪽에서 onErrorResume으로 fail-open / fail-closed를 정한다.
+* */
+@Slf4j
+@Component
+public class ReactiveRedisService {
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final AuthMetrics authMetrics;
+    private final Duration readBudget;
+    private final Duration writeBudget;
+
+    public ReactiveRedisService(ReactiveStringRedisTemplate redisTemplate,
+                                AuthMetrics authMetrics,
+                                @Value("${redis.breaker.read-budget-ms:20}") long readBudgetMs,
+                                @Value("${redis.breaker.write-budget-ms:50}") long writeBudgetMs) {
+        this.redisTemplate = redisTemplate;
+        this.authMetrics = authMetrics;
+        this.readBudget = Duration.ofMillis(readBudgetMs);
+        this.writeBudget = Duration.ofMillis(writeBudgetMs);
+    }
+
+    public Mono<Boolean> setValues(String key, String data, Duration duration) {
+        return timed("set", writeBudget, redisTemplate.opsForValue().set(key, data, duration));
+    }
+
+    // 없는 key는 RedisService와 같이 "false"
+    public Mono<String> getValues(String key) {
+        return timed("get", readBudget, redisTemplate.opsForValue().get(key).defaultIfEmpty("false"));
+    }
+
+    public Mono<Boolean> deleteValues(String key) {
+        return timed("delete", writeBudget, redisTemplate.delete(key).map(count -> count > 0));
+    }
+
+    public boolean checkExistsValue(String value) {
+        return !value.equals("false");
+    }
+
+    private <T> Mono<T> timed(String operation, Duration budget, Mono<T> command) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return command.timeout(budget)
+                    .doOnSuccess(result -> authMetrics.redis(operation, RedisOutcome.SUCCESS, System.nanoTime() - start))
+                    .onErrorMap(e -> {
+                        authMetrics.redis(operation, RedisOutcome.FAILURE, System.nanoTime() - start);
+                        return new RedisUnavailableException("redis 호출 실패 : " + operation, e);
+                    });
+        });
+    }
+}
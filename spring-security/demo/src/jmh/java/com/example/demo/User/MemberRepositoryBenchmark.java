@@ -0,0 +1,52 @@
+package com.example.demo.User;
+
+import com.example.demo.util.JwtFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// 회원 수에 따른 findByUsername 비용. 인덱스 조회라서 크기와 관계없이 비슷해야 한다.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MemberRepositoryBenchmark {
+
+    //10000000은 힙이 수 GB 필요해서 기본 목록에서 뺐다. ./gradlew jmh -Pjmh.members=10000000 으로 따로 돌린다.
+    @Param({"10000", "100000", "1000000"})
+    public int members;
+
+    private MemberRepository repository;
+    private String[] usernames;
+
+    @Setup
+    public void setUp() {
+        //디스크 기록 없이 메모리 저장소만 사용
+        MemberStore store = new MemberStore(false, "", false, 256, Long.MAX_VALUE);
+        repository = new MemberRepository(store, NoOpPasswordEncoder.getInstance());
+        usernames = new String[members];
+        for (int i = 0; i < members; i++) {
+            usernames[i] = "member" + i;
+            repository.save(JwtFixtures.member(usernames[i], "user"));
+        }
+    }
+
+    @Benchmark
+    public Optional<Member> findByUsername() {
+        return repository.findByUsername(usernames[ThreadLocalRandom.current().nextInt(members)]);
+    }
+
+    @Benchmark
+    public Optional<Member> findByUsernameMissing() {
+        return repository.findByUsername("nobody");
+    }
+}
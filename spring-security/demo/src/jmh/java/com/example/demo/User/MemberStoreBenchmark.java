@@ -0,0 +1,61 @@
+package com.example.demo.User;
+
+import com.example.demo.util.JwtFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// max-batch별 MemberStore 쓰기 처리량. 여러 쓰레드가 동시에 쓰면 group commit 한 번에 묶인다.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+public class MemberStoreBenchmark {
+
+    @Param({"1", "32", "256"})
+    public int maxBatch;
+
+    @Param({"true", "false"})
+    public boolean fsync;
+
+    private final AtomicLong ids = new AtomicLong();
+    private Path dir;
+    private MemberStore store;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("member-store-bench");
+        store = new MemberStore(true, dir.toString(), fsync, maxBatch, Long.MAX_VALUE);
+        store.recover(member -> { }, List::of);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        store.close();
+        FileSystemUtils.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public Object append() {
+        long id = ids.incrementAndGet();
+        Member member = JwtFixtures.member("member" + id, "user");
+        member.setId(id);
+        return store.append(member, () -> { }).join();
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.demo.audit;
+
+import com.example.demo.audit.AuditEvent.Type;
+import com.example.demo.util.AuthMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/*
+* 요청 쓰레드가 감사 이벤트 하나를 발행하는 비용. 여러 쓰레드가 동시에 발행한다.
+* publish : AuthAuditLog (lock-free 링 + 백그라운드 파일 기록)
+* blockingQueue : 같은 크기의 ArrayBlockingQueue.offer (락 하나를 모든 생산자/소비자가 공유), 소비 쓰레드는 버리기만 한다.
+* 링이 가득 차면 overflow 정책대로 버리므로 어느 쪽도 기다리지 않는다.
+* */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(8)
+public class AuthAuditLogBenchmark {
+
+    private static final int CAPACITY = 16384;
+
+    @Param({"DROP_NEWEST", "DROP_OLDEST"})
+    public AuthAuditLog.Overflow overflow;
+
+    private Path dir;
+    private AuthAuditLog auditLog;
+    private BlockingQueue<AuditEvent> queue;
+    private Thread consumer;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("auth-audit-bench");
+        auditLog = new AuthAuditLog(new AuthMetrics(new SimpleMeterRegistry()), true, dir.toString(),
+                CAPACITY, overflow, 512, 50, 64L * 1024 * 1024, 2);
+        auditLog.start();
+        queue = new ArrayBlockingQueue<>(CAPACITY);
+        consumer = new Thread(() -> {
+            try {
+                while (true) queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "audit-bench-consumer");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        auditLog.stop();
+        consumer.interrupt();
+        FileSystemUtils.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public void publish() {
+        auditLog.failure(Type.TOKEN_REJECTED, "member", "EXPIRED");
+    }
+
+    @Benchmark
+    public boolean blockingQueue() {
+        return queue.offer(new AuditEvent(System.currentTimeMillis(), Type.TOKEN_REJECTED, false, "member", "EXPIRED"));
+    }
+}
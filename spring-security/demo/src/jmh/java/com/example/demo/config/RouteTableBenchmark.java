@@ -0,0 +1,97 @@
+package com.example.demo.config;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+* 요청 경로 -> 규칙 조회 비용.
+* routeTable* : RouteTable (세그먼트 트리)
+* matcherList* : 예전 authorizeHttpRequests처럼 선언 순서대로 request matcher를 하나씩 검사 (첫 번째로 맞는 규칙)
+* excludeList : 예전 JwtVerificationFilter.shouldNotFilter (EXCLUDE_URL stream + equalsIgnoreCase)
+* last : 목록의 마지막 규칙에 맞는 경로, miss : 어떤 규칙에도 맞지 않는 경로 (anyRequest)
+* */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RouteTableBenchmark {
+
+    @Param({"10", "100", "500"})
+    public int routes;
+
+    private RouteTable routeTable;
+    private List<AntPathRequestMatcher> matchers;
+    private List<String> excludes;
+    private String lastPath;
+    private MockHttpServletRequest lastRequest;
+    private MockHttpServletRequest missRequest;
+    private final String missPath = "/orders/42/items";
+
+    @Setup
+    public void setUp() {
+        RouteTable.Builder builder = RouteTable.builder();
+        matchers = new ArrayList<>(routes);
+        excludes = new ArrayList<>(routes);
+        for (int i = 0; i < routes; i++) {
+            //절반은 정확한 경로, 절반은 하위 전체
+            String pattern = i % 2 == 0 ? "/service" + i + "/resource" : "/service" + i + "/**";
+            builder.hasRole("user", pattern);
+            matchers.add(new AntPathRequestMatcher(pattern));
+            excludes.add(pattern);
+        }
+        routeTable = builder.build();
+        int last = routes - 1;
+        lastPath = last % 2 == 0 ? "/service" + last + "/resource" : "/service" + last + "/detail";
+        lastRequest = request(lastPath);
+        missRequest = request(missPath);
+    }
+
+    @Benchmark
+    public Object routeTableLast() {
+        return routeTable.match(lastPath);
+    }
+
+    @Benchmark
+    public Object routeTableMiss() {
+        return routeTable.match(missPath);
+    }
+
+    @Benchmark
+    public Object matcherListLast() {
+        return firstMatch(lastRequest);
+    }
+
+    @Benchmark
+    public Object matcherListMiss() {
+        return firstMatch(missRequest);
+    }
+
+    @Benchmark
+    public boolean excludeList() {
+        return excludes.stream().anyMatch(exclude -> exclude.equalsIgnoreCase(missPath));
+    }
+
+    private AntPathRequestMatcher firstMatch(MockHttpServletRequest request) {
+        for (AntPathRequestMatcher matcher : matchers) {
+            if (matcher.matches(request)) return matcher;
+        }
+        return null;
+    }
+
+    private static MockHttpServletRequest request(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        return request;
+    }
+}
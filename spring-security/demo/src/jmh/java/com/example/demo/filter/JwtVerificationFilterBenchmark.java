@@ -0,0 +1,73 @@
+package com.example.demo.filter;
+
+import com.example.demo.audit.AuthAuditLog;
+import com.example.demo.config.RouteTable;
+import com.example.demo.service.RevocationEpochs;
+import com.example.demo.util.AuthMetrics;
+import com.example.demo.util.JwtFixtures;
+import com.example.demo.util.JwtTokenProvider;
+import com.example.demo.util.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+* 요청 한 건이 JwtVerificationFilter를 지나가는 비용.
+* 로그아웃 확인은 사용자별 epoch(로컬 map) 비교라서 Redis까지 가지 않는다.
+* cached=false 이면 매번 검증 캐시를 비워서 서명 검증 경로를 잰다.
+* */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtVerificationFilterBenchmark {
+
+    @Param({"true", "false"})
+    public boolean cached;
+
+    private JwtVerificationFilter filter;
+    private VerifiedTokenCache cache;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private String accessToken;
+    private final FilterChain chain = (req, res) -> { };
+
+    @Setup
+    public void setUp() {
+        JwtTokenProvider provider = JwtFixtures.provider();
+        AuthMetrics authMetrics = new AuthMetrics(new SimpleMeterRegistry());
+        //요청 경로에서는 Redis를 호출하지 않으므로 연결 없는 템플릿이면 충분하다.
+        RevocationEpochs revocationEpochs = JwtFixtures.revocationEpochs();
+        cache = new VerifiedTokenCache(10_000);
+        //갱신은 꺼져 있어서 회원 저장소를 읽지 않는다.
+        filter = new JwtVerificationFilter(provider, cache, revocationEpochs, authMetrics,
+                new AccessTokenRenewal(provider, revocationEpochs, null, false, 60_000, 30_000, 10_000), RouteTable.builder().build(),
+                new AuthAuditLog(authMetrics, false, "", 2, AuthAuditLog.Overflow.DROP_NEWEST, 1, 50, Long.MAX_VALUE, 1));
+
+        accessToken = provider.createToken(JwtFixtures.member("username", "user")).getAccessToken();
+        request = new MockHttpServletRequest("GET", "/api1");
+        request.setServletPath("/api1");
+        request.addHeader("Authorization", "Bearer " + accessToken);
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public Object doFilterInternal() throws Exception {
+        if (!cached) cache.invalidate(accessToken);
+        filter.doFilterInternal(request, response, chain);
+        Object authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+}
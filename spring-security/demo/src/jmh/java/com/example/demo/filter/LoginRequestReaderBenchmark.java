@@ -0,0 +1,50 @@
+package com.example.demo.filter;
+
+import com.example.demo.dto.LoginDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+// 로그인 요청 본문 파싱 비용과 op당 할당량(gc 프로파일러)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LoginRequestReaderBenchmark {
+
+    private static final byte[] BODY = "{\"username\":\"username\",\"password\":\"password\"}".getBytes(StandardCharsets.UTF_8);
+
+    private LoginRequestReader reader;
+
+    @Setup
+    public void setUp() {
+        reader = new LoginRequestReader(4096);
+    }
+
+    @Benchmark
+    public LoginDto readJson() throws IOException {
+        //요청 객체는 한 번만 읽을 수 있으므로 매번 새로 만든다. (요청 생성 비용도 결과에 포함)
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/members/sign-in");
+        request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        request.setContent(BODY);
+        return reader.read(request);
+    }
+
+    @Benchmark
+    public LoginDto readForm() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/members/sign-in");
+        request.setContentType(MediaType.APPLICATION_FORM_URLENCODED_VALUE);
+        request.addParameter("username", "username");
+        request.addParameter("password", "password");
+        return reader.read(request);
+    }
+}
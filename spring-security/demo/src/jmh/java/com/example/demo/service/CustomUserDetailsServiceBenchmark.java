@@ -0,0 +1,66 @@
+package com.example.demo.service;
+
+import com.example.demo.User.MemberRepository;
+import com.example.demo.User.MemberStore;
+import com.example.demo.util.JwtFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// 로그인 한 번의 비용 (CustomUserDetailsService 조회 + BCrypt 비교). 대부분 BCrypt에서 쓴다.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CustomUserDetailsServiceBenchmark {
+
+    private CustomUserDetailsService userDetailsService;
+    private DaoAuthenticationProvider authenticationProvider;
+
+    @Setup
+    public void setUp() {
+        //SecurityConfig.passwordEncoder와 같은 구성
+        PasswordEncoder passwordEncoder = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", new BCryptPasswordEncoder()));
+        MemberRepository repository = new MemberRepository(new MemberStore(false, "", false, 256, Long.MAX_VALUE), passwordEncoder);
+        var member = JwtFixtures.member("username", "user");
+        member.setPassword(passwordEncoder.encode("password"));
+        repository.save(member);
+
+        userDetailsService = new CustomUserDetailsService(repository);
+        authenticationProvider = new DaoAuthenticationProvider();
+        authenticationProvider.setPasswordEncoder(passwordEncoder);
+        authenticationProvider.setUserDetailsService(userDetailsService);
+    }
+
+    @Benchmark
+    public Object loadUserByUsername() {
+        return userDetailsService.loadUserByUsername("username");
+    }
+
+    @Benchmark
+    public Authentication authenticate() {
+        return authenticationProvider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("username", "password"));
+    }
+
+    // CPU 코어 수만큼 동시에 로그인할 때 초당 로그인 수
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Threads(Threads.MAX)
+    public Authentication loginsPerSecond() {
+        return authenticate();
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.demo.service;
+
+import com.example.demo.util.JwtFixtures;
+import com.example.demo.util.JwtTokenProvider;
+import com.example.demo.util.RedisKeys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+* 토큰 keyspace 한 건(key + value)을 Redis에 보내기 전/받은 후 직렬화하는 비용.
+* jdk    : 예전 RedisTemplate 기본값 (JdkSerializationRedisSerializer, key = username / access token 원문)
+* string : StringRedisTemplate + RedisKeys (rt:<username> / epoch:<username>)
+* 로그아웃은 예전에는 access token마다 key 하나(원문 key, "logout")였고, 지금은 사용자별 epoch key 하나(epoch seconds)다.
+* key당 바이트 수는 시작할 때 콘솔에 찍는다.
+* 직렬화 시간은 빌드 toolchain(Java 21)에서 ./gradlew jmh로 잰 값만 인용한다. 다른 JDK에서 어림한 수치는 쓰지 않는다.
+* */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RedisSerializationBenchmark {
+
+    @Param({"jdk", "string"})
+    public String format;
+
+    private RedisSerializer<Object> jdk;
+    private RedisSerializer<String> string;
+    private String username;
+    private String accessToken;
+    private String refreshToken;
+    private byte[] storedRefreshValue;
+    private byte[] storedLogoutKey;
+    private String epoch;
+
+    @Setup
+    public void setUp() {
+        jdk = new JdkSerializationRedisSerializer();
+        string = StringRedisSerializer.UTF_8;
+        JwtTokenProvider provider = JwtFixtures.provider();
+        username = "username";
+        var token = provider.createToken(JwtFixtures.member(username, "user", "admin"));
+        accessToken = token.getAccessToken();
+        refreshToken = token.getRefreshToken();
+        epoch = Long.toString(System.currentTimeMillis() / 1000);
+        storedRefreshValue = jdk() ? jdk.serialize(refreshToken) : string.serialize(refreshToken);
+        storedLogoutKey = jdk() ? jdk.serialize(accessToken) : string.serialize(RedisKeys.epoch(username));
+
+        System.out.printf("%n[%s] refresh key=%dB value=%dB, logout key=%dB value=%dB%n", format,
+                refreshKey().length, storedRefreshValue.length, logoutKey().length, logoutValue().length);
+    }
+
+    // 로그인 : refresh token 저장
+    @Benchmark
+    public void writeRefreshToken(Blackhole blackhole) {
+        blackhole.consume(refreshKey());
+        blackhole.consume(jdk() ? jdk.serialize(refreshToken) : string.serialize(refreshToken));
+    }
+
+    // 재발급 : refresh token 조회 (key 직렬화 + value 역직렬화)
+    @Benchmark
+    public Object readRefreshToken(Blackhole blackhole) {
+        blackhole.consume(refreshKey());
+        return jdk() ? jdk.deserialize(storedRefreshValue) : string.deserialize(storedRefreshValue);
+    }
+
+    // 로그아웃 기록
+    @Benchmark
+    public void writeLogout(Blackhole blackhole) {
+        blackhole.consume(logoutKey());
+        blackhole.consume(logoutValue());
+    }
+
+    // 로그아웃 key 역직렬화 (예전 형식은 마이그레이션이 SCAN으로 받은 key를 읽을 때의 비용)
+    @Benchmark
+    public Object readLogoutKey() {
+        return jdk() ? jdk.deserialize(storedLogoutKey) : string.deserialize(storedLogoutKey);
+    }
+
+    private boolean jdk() {
+        return format.equals("jdk");
+    }
+
+    private byte[] refreshKey() {
+        return jdk() ? jdk.serialize(username) : string.serialize(RedisKeys.refreshToken(username));
+    }
+
+    private byte[] logoutKey() {
+        return jdk() ? jdk.serialize(accessToken) : string.serialize(RedisKeys.epoch(username));
+    }
+
+    private byte[] logoutValue() {
+        return jdk() ? jdk.serialize("logout") : string.serialize(epoch);
+    }
+}
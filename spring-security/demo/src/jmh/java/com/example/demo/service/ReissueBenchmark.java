@@ -0,0 +1,83 @@
+package com.example.demo.service;
+
+import com.example.demo.User.Member;
+import com.example.demo.User.MemberRepository;
+import com.example.demo.User.MemberStore;
+import com.example.demo.dto.JwtToken;
+import com.example.demo.dto.VerifiedToken;
+import com.example.demo.util.JwtFixtures;
+import com.example.demo.util.JwtTokenProvider;
+import com.example.demo.util.RoleSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// 재발급 한 번의 CPU 비용. Redis 조회/교체는 빼고 refresh token 검증 + 권한 조회 + 서명만 잰다.
+// createTokenPair : 예전 경로 (Member 조회 후 access + refresh 둘 다 서명, refresh는 버림)
+// accessTokenOnly : RoleSet projection 조회 후 access token만 서명
+// accessTokenWithRotation : refresh-token-rotation이 켜진 경우 (refresh token도 새로 서명)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ReissueBenchmark {
+
+    private static final int MEMBERS = 10_000;
+
+    private JwtTokenProvider provider;
+    private MemberRepository repository;
+    private String[] refreshTokens;
+
+    @Setup
+    public void setUp() {
+        provider = JwtFixtures.provider();
+        repository = new MemberRepository(new MemberStore(false, "", false, 256, Long.MAX_VALUE),
+                NoOpPasswordEncoder.getInstance());
+        refreshTokens = new String[MEMBERS];
+        for (int i = 0; i < MEMBERS; i++) {
+            Member member = repository.save(JwtFixtures.member("member" + i, "user"));
+            refreshTokens[i] = provider.createToken(member).getRefreshToken();
+        }
+    }
+
+    @Benchmark
+    public JwtToken createTokenPair() {
+        VerifiedToken verified = provider.verify(nextRefreshToken());
+        Member member = repository.findByUsername(verified.getSubject()).orElseThrow();
+        return provider.createToken(member, nowSeconds());
+    }
+
+    @Benchmark
+    public String accessTokenOnly() {
+        VerifiedToken verified = provider.verify(nextRefreshToken());
+        String username = verified.getSubject();
+        RoleSet roleSet = repository.findRoleSetByUsername(username);
+        return provider.createAccessToken(username, roleSet, nowSeconds(), verified.getIssuedAt());
+    }
+
+    @Benchmark
+    public void accessTokenWithRotation(Blackhole blackhole) {
+        VerifiedToken verified = provider.verify(nextRefreshToken());
+        String username = verified.getSubject();
+        RoleSet roleSet = repository.findRoleSetByUsername(username);
+        long issuedAt = nowSeconds();
+        blackhole.consume(provider.createAccessToken(username, roleSet, issuedAt, verified.getIssuedAt()));
+        blackhole.consume(provider.createRefreshToken(username, issuedAt));
+    }
+
+    private String nextRefreshToken() {
+        return refreshTokens[ThreadLocalRandom.current().nextInt(MEMBERS)];
+    }
+
+    private static long nowSeconds() {
+        return System.currentTimeMillis() / 1000;
+    }
+}
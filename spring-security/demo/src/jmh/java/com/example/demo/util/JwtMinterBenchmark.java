@@ -0,0 +1,72 @@
+package com.example.demo.util;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Date;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// 토큰 하나 서명 비용. jjwt : 예전 Jwts.builder() 경로, minter : JwtMinter
+// -prof gc 로 돌리면 토큰당 할당량(gc.alloc.rate.norm)도 비교할 수 있다.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JwtMinterBenchmark {
+
+    private static final String USERNAME = "username";
+    private static final String AUTHORITIES = "ROLE_user,ROLE_admin";
+
+    private JwtKeyRing.SigningKey signingKey;
+    private JwtMinter minter;
+    private long issuedAt;
+
+    @Setup
+    public void setUp() {
+        signingKey = JwtFixtures.keyRing().active();
+        minter = new JwtMinter();
+        issuedAt = System.currentTimeMillis() / 1000;
+    }
+
+    @Benchmark
+    public String jjwtAccessToken() {
+        return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, signingKey.kid())
+                .claim("role", AUTHORITIES)
+                .setSubject(USERNAME)
+                .setIssuedAt(new Date(issuedAt * 1000))
+                .signWith(signingKey.key(), SignatureAlgorithm.HS512)
+                .setExpiration(new Date((issuedAt + 120) * 1000))
+                .compact();
+    }
+
+    @Benchmark
+    public String minterAccessToken() {
+        return minter.accessToken(signingKey, USERNAME, AUTHORITIES, issuedAt, issuedAt, issuedAt + 120);
+    }
+
+    @Benchmark
+    public String jjwtRefreshToken() {
+        return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, signingKey.kid())
+                .setSubject(USERNAME)
+                .setId(Long.toHexString(ThreadLocalRandom.current().nextLong()))
+                .setIssuedAt(new Date(issuedAt * 1000))
+                .setExpiration(new Date((issuedAt + 1_209_600) * 1000))
+                .signWith(signingKey.key())
+                .compact();
+    }
+
+    @Benchmark
+    public String minterRefreshToken() {
+        return minter.refreshToken(signingKey, USERNAME, ThreadLocalRandom.current().nextLong(), issuedAt, issuedAt + 1_209_600);
+    }
+}
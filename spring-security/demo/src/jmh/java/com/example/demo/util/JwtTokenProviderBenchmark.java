@@ -0,0 +1,66 @@
+package com.example.demo.util;
+
+import com.example.demo.User.Member;
+import com.example.demo.dto.VerifiedToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.core.Authentication;
+
+import java.util.concurrent.TimeUnit;
+
+// 토큰 발급/검증 경로. 결과를 반환해서 JIT가 호출을 없애지 못하게 한다.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtTokenProviderBenchmark {
+
+    private JwtTokenProvider provider;
+    private Member member;
+    private String accessToken;
+    private VerifiedToken verifiedToken;
+
+    @Setup
+    public void setUp() {
+        provider = JwtFixtures.provider();
+        member = JwtFixtures.member("username", "user", "admin");
+        accessToken = provider.createToken(member).getAccessToken();
+        verifiedToken = provider.verify(accessToken);
+    }
+
+    @Benchmark
+    public Object createToken() {
+        return provider.createToken(member);
+    }
+
+    @Benchmark
+    public Object parseClaims() {
+        return provider.parseClaims(accessToken);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return provider.validateToken(accessToken);
+    }
+
+    @Benchmark
+    public VerifiedToken verify() {
+        return provider.verify(accessToken);
+    }
+
+    // 서명 검증부터 Authentication 생성까지
+    @Benchmark
+    public Authentication getAuthentication() {
+        return provider.getAuthentication(accessToken);
+    }
+
+    // 이미 검증된 결과로 Authentication만 생성
+    @Benchmark
+    public Authentication getAuthenticationFromVerified() {
+        return provider.getAuthentication(verifiedToken, accessToken);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.demo.util;
+
+import com.example.demo.User.Member;
+import com.example.demo.dto.VerifiedToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+// 토큰 하나 검증 비용. jjwt* : JwtTokenProvider.parseClaims(jjwt 파서)를 거쳐 예외로 실패를 처리하던 경로, fast* : JwtVerifier
+// 잘못된 토큰(서명 위조, 만료, 형식 오류)이 몰려오는 경우를 따로 잰다. -prof gc 로 돌리면 할당량도 비교할 수 있다.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JwtVerifierBenchmark {
+
+    private JwtTokenProvider provider;
+    private JwtVerifier verifier;
+    private String valid;
+    private String forged;
+    private String expired;
+    private final String garbage = "not-a-jwt-token";
+
+    @Setup
+    public void setUp() {
+        provider = JwtFixtures.provider();
+        JwtKeyRing keyRing = JwtFixtures.keyRing();
+        verifier = new JwtVerifier(keyRing);
+        Member member = JwtFixtures.member("username", "user", "admin");
+        valid = provider.createToken(member).getAccessToken();
+        int index = valid.lastIndexOf('.') + 5;
+        forged = valid.substring(0, index) + (valid.charAt(index) == 'A' ? 'B' : 'A') + valid.substring(index + 1);
+        long now = System.currentTimeMillis() / 1000;
+        expired = new JwtMinter().accessToken(keyRing.active(), "username", "ROLE_user", now - 120, now - 120, now - 60);
+    }
+
+    @Benchmark
+    public Object jjwtValid() {
+        return provider.parseClaims(valid);
+    }
+
+    @Benchmark
+    public VerifiedToken fastValid() {
+        return verifier.verify(valid);
+    }
+
+    @Benchmark
+    public Object jjwtForged() {
+        return jjwt(forged);
+    }
+
+    @Benchmark
+    public VerifiedToken fastForged() {
+        return verifier.verify(forged);
+    }
+
+    @Benchmark
+    public Object jjwtExpired() {
+        return jjwt(expired);
+    }
+
+    @Benchmark
+    public VerifiedToken fastExpired() {
+        return verifier.verify(expired);
+    }
+
+    @Benchmark
+    public Object jjwtGarbage() {
+        return jjwt(garbage);
+    }
+
+    @Benchmark
+    public VerifiedToken fastGarbage() {
+        return verifier.verify(garbage);
+    }
+
+    // 예전 verify()처럼 예외를 잡아서 버린다.
+    private Object jjwt(String token) {
+        try {
+            return provider.parseClaims(token);
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package com.example.demo.loadtest;
+
+import com.example.demo.User.Member;
+import com.example.demo.User.MemberRepository;
+import com.example.demo.loadtest.LoadTestSettings.Operation;
+import org.assertj.core.api.SoftAssertions;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+* SecurityConfig의 실제 필터 체인(JwtFilter -> JwtVerificationFilter -> 인가)에 섞인 요청을 보내는 부하 테스트.
+* Redis는 embedded-redis로 띄우고, MemberStore는 끈 상태로 실행한다.
+*
+* 가상 사용자(쓰레드)마다 자기 계정으로 로그인해서 토큰을 들고 다니고, logout 하면 다음 요청에서 다시 로그인한다.
+* 결과는 콘솔과 build/results/loadtest/<loadtest.name>.json 에 남기고, 예산(budget)을 넘으면 실패한다.
+*
+* 클라이언트는 가상 쓰레드로 돌려서 동시성을 높여도 클라이언트 쪽 쓰레드가 병목이 되지 않게 한다.
+* 서버 쪽 가상 쓰레드 pinning은 JFR jdk.VirtualThreadPinned 이벤트로 센다. (spring.profiles.active=virtual 일 때 의미가 있다)
+* */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "member.store.enabled=false",
+        "logging.level.com.example.demo=WARN"
+})
+class AuthLoadTest {
+
+    private static final String PASSWORD = "password";
+    private static RedisServer redisServer;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @DynamicPropertySource
+    static void redisProperties(DynamicPropertyRegistry registry) {
+        try {
+            int redisPort;
+            try (ServerSocket socket = new ServerSocket(0)) {
+                redisPort = socket.getLocalPort();
+            }
+            redisServer = new RedisServer(redisPort);
+            redisServer.start();
+            registry.add("spring.data.redis.port", () -> redisPort);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        if (redisServer != null) redisServer.stop();
+    }
+
+    @Test
+    void 섞인_요청_부하에서_예산을_지킨다() throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        createUsers(settings.concurrency());
+
+        long start = System.nanoTime();
+        long measureFrom = start + Duration.ofSeconds(settings.warmupSeconds()).toNanos();
+        long end = measureFrom + Duration.ofSeconds(settings.durationSeconds()).toNanos();
+
+        PinnedThreadCounter pinned = PinnedThreadCounter.start();
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        List<Future<Stats>> futures = new ArrayList<>();
+        for (int i = 0; i < settings.concurrency(); i++) {
+            String username = "loaduser" + i;
+            futures.add(executor.submit(() -> new VirtualUser(username, settings).run(measureFrom, end)));
+        }
+        Stats total = new Stats();
+        for (Future<Stats> future : futures) {
+            total.merge(future.get());
+        }
+        executor.shutdown();
+        long pinnedEvents = pinned.stop();
+
+        report(settings, total, pinnedEvents);
+    }
+
+    private void createUsers(int count) {
+        //BCrypt 해시는 한 번만 만들어서 같이 쓴다.
+        String hash = passwordEncoder.encode(PASSWORD);
+        for (int i = 0; i < count; i++) {
+            String username = "loaduser" + i;
+            if (memberRepository.findByUsername(username).isPresent()) continue;
+            memberRepository.save(Member.builder()
+                    .username(username)
+                    .password(hash)
+                    .roles(new ArrayList<>(List.of("user", "admin")))
+                    .build());
+        }
+    }
+
+    private void report(LoadTestSettings settings, Stats total, long pinnedEvents) throws IOException {
+        double seconds = settings.durationSeconds();
+        long requests = total.requests();
+        double throughput = requests / seconds;
+        double errorRate = requests == 0 ? 1.0 : (double) total.errors() / requests;
+        LatencyRecorder all = new LatencyRecorder();
+        total.latencies.values().forEach(all::merge);
+
+        StringBuilder console = new StringBuilder();
+        StringBuilder json = new StringBuilder();
+        console.append(String.format("%n[loadtest] %s concurrency=%d duration=%ds throughput=%.1f req/s errors=%d rejected=%d pinned=%d%n",
+                System.getProperty("loadtest.name", "default"), settings.concurrency(), settings.durationSeconds(),
+                throughput, total.errors(), total.rejected(), pinnedEvents));
+        json.append("{\"name\":\"").append(System.getProperty("loadtest.name", "default")).append('"')
+                .append(",\"concurrency\":").append(settings.concurrency())
+                .append(",\"durationSeconds\":").append(settings.durationSeconds())
+                .append(",\"throughput\":").append(String.format("%.2f", throughput))
+                .append(",\"errorRate\":").append(String.format("%.5f", errorRate))
+                .append(",\"pinnedEvents\":").append(pinnedEvents)
+                .append(",\"operations\":{");
+        boolean first = true;
+        for (Map.Entry<Operation, LatencyRecorder> entry : total.latencies.entrySet()) {
+            LatencyRecorder recorder = entry.getValue();
+            if (recorder.count() == 0) continue;
+            console.append(String.format("  %-8s count=%-8d p50=%.2fms p90=%.2fms p99=%.2fms p99.9=%.2fms%n",
+                    entry.getKey(), recorder.count(), recorder.percentileMillis(50), recorder.percentileMillis(90),
+                    recorder.percentileMillis(99), recorder.percentileMillis(99.9)));
+            if (!first) json.append(',');
+            first = false;
+            json.append('"').append(entry.getKey()).append("\":{\"count\":").append(recorder.count())
+                    .append(",\"p50\":").append(String.format("%.3f", recorder.percentileMillis(50)))
+                    .append(",\"p90\":").append(String.format("%.3f", recorder.percentileMillis(90)))
+                    .append(",\"p99\":").append(String.format("%.3f", recorder.percentileMillis(99)))
+                    .append(",\"p999\":").append(String.format("%.3f", recorder.percentileMillis(99.9)))
+                    .append('}');
+        }
+        json.append("},\"p99\":").append(String.format("%.3f", all.percentileMillis(99))).append('}');
+        System.out.println(console);
+
+        Path dir = Path.of(System.getProperty("loadtest.results-dir", "build/results/loadtest"));
+        Files.createDirectories(dir);
+        Files.writeString(dir.resolve(System.getProperty("loadtest.name", "default") + ".json"), json);
+
+        if (!settings.enforceBudget()) return;
+        SoftAssertions softly = new SoftAssertions();
+        softly.assertThat(all.percentileMillis(99)).as("p99(ms)").isLessThanOrEqualTo(settings.p99BudgetMillis());
+        softly.assertThat(throughput).as("throughput(req/s)").isGreaterThanOrEqualTo(settings.minThroughput());
+        softly.assertThat(errorRate).as("error rate").isLessThanOrEqualTo(settings.maxErrorRate());
+        softly.assertThat(pinnedEvents).as("pinned virtual threads").isLessThanOrEqualTo(settings.maxPinnedEvents());
+        softly.assertAll();
+    }
+
+    // 가상 사용자 한 명. 자기 토큰을 들고 비율에 맞춰 요청을 보낸다.
+    private class VirtualUser {
+        private final String username;
+        private final LoadTestSettings settings;
+        private final Stats stats = new Stats();
+        private String accessToken;
+        private String refreshToken;
+
+        VirtualUser(String username, LoadTestSettings settings) {
+            this.username = username;
+            this.settings = settings;
+        }
+
+        Stats run(long measureFrom, long end) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long now;
+            while ((now = System.nanoTime()) < end) {
+                Operation operation = accessToken == null ? Operation.LOGIN : settings.pick(random.nextInt(settings.mixTotal()));
+                int status;
+                try {
+                    status = send(operation);
+                } catch (IOException e) {
+                    status = -1;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                if (now >= measureFrom) {
+                    stats.record(operation, System.nanoTime() - now, status);
+                }
+            }
+            return stats;
+        }
+
+        private int send(Operation operation) throws IOException, InterruptedException {
+            return switch (operation) {
+                case LOGIN -> login();
+                case API1 -> api("/api1");
+                case API2 -> api("/api2");
+                case REISSUE -> reissue();
+                case LOGOUT -> logout();
+            };
+        }
+
+        private int login() throws IOException, InterruptedException {
+            HttpRequest request = HttpRequest.newBuilder(uri("/login"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"username\":\"" + username + "\",\"password\":\"" + PASSWORD + "\"}"))
+                    .build();
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() == 200) {
+                accessToken = stripBearer(response.headers().firstValue("Authorization").orElse(null));
+                refreshToken = response.headers().firstValue("Refresh").orElse(null);
+            }
+            return response.statusCode();
+        }
+
+        // jwt.renewal.enabled면 만료가 가까운 토큰 대신 새 토큰이 Authorization 헤더로 온다.
+        private int api(String path) throws IOException, InterruptedException {
+            HttpResponse<Void> response = get(path, true, false);
+            response.headers().firstValue("Authorization").map(this::stripBearer).ifPresent(renewed -> accessToken = renewed);
+            return response.statusCode();
+        }
+
+        private int reissue() throws IOException, InterruptedException {
+            HttpResponse<Void> response = get("/members/reissue", false, true);
+            String reissued = stripBearer(response.headers().firstValue("Authorization").orElse(null));
+            //재발급 실패면 서버가 "Bearernull"을 내려준다.
+            if (response.statusCode() != 200 || reissued == null || reissued.equals("null")) return 401;
+            accessToken = reissued;
+            //refresh token rotation이 켜져 있으면 새 refresh token으로 바꾼다.
+            refreshToken = response.headers().firstValue("Refresh").orElse(refreshToken);
+            return 200;
+        }
+
+        private int logout() throws IOException, InterruptedException {
+            int status = get("/members/logout", true, true).statusCode();
+            accessToken = null;
+            refreshToken = null;
+            return status;
+        }
+
+        private HttpResponse<Void> get(String path, boolean access, boolean refresh) throws IOException, InterruptedException {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(uri(path)).GET();
+            if (access) builder.header("Authorization", "Bearer " + accessToken);
+            if (refresh) builder.header("Refresh", refreshToken);
+            return client.send(builder.build(), HttpResponse.BodyHandlers.discarding());
+        }
+
+        // 서버는 "Bearer" 뒤에 공백 없이 토큰을 붙여서 내려준다.
+        private String stripBearer(String header) {
+            if (header == null) return null;
+            return header.startsWith("Bearer") ? header.substring("Bearer".length()).trim() : header;
+        }
+
+        private URI uri(String path) {
+            return URI.create("http://localhost:" + port + path);
+        }
+    }
+
+    private static final class Stats {
+        private final Map<Operation, LatencyRecorder> latencies = new EnumMap<>(Operation.class);
+        private long requests;
+        private long errors;
+        //로그인 해싱 풀이 가득 차서 503으로 거절된 요청 (의도된 부하 차단이라 오류에서 뺀다)
+        private long rejected;
+
+        Stats() {
+            for (Operation operation : Operation.values()) {
+                latencies.put(operation, new LatencyRecorder());
+            }
+        }
+
+        void record(Operation operation, long elapsedNanos, int status) {
+            latencies.get(operation).record(elapsedNanos);
+            requests++;
+            if (status == 503 && operation == Operation.LOGIN) rejected++;
+            else if (status < 200 || status >= 300) errors++;
+        }
+
+        void merge(Stats other) {
+            other.latencies.forEach((operation, recorder) -> latencies.get(operation).merge(recorder));
+            requests += other.requests;
+            errors += other.errors;
+            rejected += other.rejected;
+        }
+
+        long requests() {
+            return requests;
+        }
+
+        long errors() {
+            return errors;
+        }
+
+        long rejected() {
+            return rejected;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.demo.loadtest;
+
+import java.util.Arrays;
+
+// 쓰레드 하나가 쓰는 지연시간 기록. 끝나고 merge 해서 백분위를 계산한다. (thread-safe 하지 않음)
+final class LatencyRecorder {
+
+    private long[] nanos = new long[1024];
+    private int size;
+
+    void record(long elapsedNanos) {
+        if (size == nanos.length) {
+            nanos = Arrays.copyOf(nanos, size * 2);
+        }
+        nanos[size++] = elapsedNanos;
+    }
+
+    int count() {
+        return size;
+    }
+
+    void merge(LatencyRecorder other) {
+        if (size + other.size > nanos.length) {
+            nanos = Arrays.copyOf(nanos, Math.max(nanos.length * 2, size + other.size));
+        }
+        System.arraycopy(other.nanos, 0, nanos, size, other.size);
+        size += other.size;
+    }
+
+    // percentile : 0~100, 결과는 ms
+    double percentileMillis(double percentile) {
+        if (size == 0) return 0;
+        long[] sorted = Arrays.copyOf(nanos, size);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * size) - 1;
+        return sorted[Math.max(0, Math.min(index, size - 1))] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.demo.loadtest;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/*
+* 부하 테스트 설정. gradle -Ploadtest.xxx=값 으로 넘기면 시스템 프로퍼티로 전달된다.
+*
+* loadtest.concurrency       동시 사용자(쓰레드) 수
+* loadtest.warmup-seconds    측정 전 워밍업 시간
+* loadtest.duration-seconds  측정 시간
+* loadtest.mix               요청 비율 (login=5,api1=40,api2=40,reissue=10,logout=5)
+* loadtest.budget.p99-ms          전체 p99 상한
+* loadtest.budget.min-throughput  초당 요청 수 하한
+* loadtest.budget.max-error-rate  오류 비율 상한 (503 로그인 거절은 제외)
+* loadtest.budget.max-pinned     가상 쓰레드 pinning(JFR jdk.VirtualThreadPinned) 횟수 상한
+* loadtest.budget.enforce        false면 결과만 기록하고 예산 검사는 하지 않는다. (플랫폼/가상 쓰레드 비교용)
+* */
+record LoadTestSettings(int concurrency,
+                        int warmupSeconds,
+                        int durationSeconds,
+                        Map<Operation, Integer> mix,
+                        double p99BudgetMillis,
+                        double minThroughput,
+                        double maxErrorRate,
+                        long maxPinnedEvents,
+                        boolean enforceBudget) {
+
+    enum Operation {
+        LOGIN, API1, API2, REISSUE, LOGOUT
+    }
+
+    static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                Integer.getInteger("loadtest.concurrency", 16),
+                Integer.getInteger("loadtest.warmup-seconds", 5),
+                Integer.getInteger("loadtest.duration-seconds", 20),
+                parseMix(System.getProperty("loadtest.mix", "login=5,api1=40,api2=40,reissue=10,logout=5")),
+                Double.parseDouble(System.getProperty("loadtest.budget.p99-ms", "250")),
+                Double.parseDouble(System.getProperty("loadtest.budget.min-throughput", "200")),
+                Double.parseDouble(System.getProperty("loadtest.budget.max-error-rate", "0.01")),
+                Long.getLong("loadtest.budget.max-pinned", 0L),
+                Boolean.parseBoolean(System.getProperty("loadtest.budget.enforce", "true")));
+    }
+
+    private static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String part : value.split(",")) {
+            String[] pair = part.trim().split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("loadtest.mix 형식이 잘못되었습니다. " + part);
+            }
+            mix.put(Operation.valueOf(pair[0].trim().toUpperCase()), Integer.parseInt(pair[1].trim()));
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("loadtest.mix 비율 합이 0입니다.");
+        }
+        return mix;
+    }
+
+    // 0 ~ (합-1) 사이의 값을 비율에 맞는 요청 종류로 바꾼다.
+    Operation pick(int roll) {
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) return entry.getKey();
+        }
+        return Operation.API1;
+    }
+
+    int mixTotal() {
+        return mix.values().stream().mapToInt(Integer::intValue).sum();
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.demo.loadtest;
+
+import jdk.jfr.consumer.RecordingStream;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 부하 중에 가상 쓰레드가 carrier에 고정(pinning)된 횟수를 JFR 이벤트로 센다.
+// (synchronized 안에서 블로킹하거나 native 프레임이 있을 때 발생, 20ms 이상 고정된 것만 기록)
+final class PinnedThreadCounter {
+
+    private final RecordingStream stream;
+    private final AtomicLong count = new AtomicLong();
+
+    private PinnedThreadCounter() {
+        stream = new RecordingStream();
+        stream.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ofMillis(20)).withStackTrace();
+        stream.onEvent("jdk.VirtualThreadPinned", event -> {
+            //처음 몇 건은 어디서 고정됐는지 스택을 남긴다.
+            if (count.incrementAndGet() <= 5) {
+                System.out.println("[loadtest] pinned " + event.getDuration().toMillis() + "ms\n" + event.getStackTrace());
+            }
+        });
+        stream.startAsync();
+    }
+
+    static PinnedThreadCounter start() {
+        return new PinnedThreadCounter();
+    }
+
+    long stop() {
+        stream.close();
+        return count.get();
+    }
+}
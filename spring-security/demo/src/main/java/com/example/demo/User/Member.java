@@ -1,20 +1,19 @@
 package com.example.demo.User;
 
 import lombok.*;
+import com.example.demo.util.AuthorityRegistry;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 @EqualsAndHashCode(of="of")
 public class Member implements UserDetails {
     private Long id;
@@ -27,12 +26,11 @@ public class Member implements UserDetails {
     @Builder.Default
     private List<String> roles = new ArrayList<>();
 
-    //멤버가 가지고 있는 권한 목록을 SimpleGrantedAuthority로 변환하여 반환
+    //멤버가 가지고 있는 권한 목록을 반환. AuthorityRegistry에서 ROLE_ 접두사가 붙은 공유 인스턴스를 꺼낸다.
+    //(CustomUserDetailsService의 roles()와 같은 ROLE_user 형태라서 reissue로 만든 토큰도 hasRole 검사를 통과한다.)
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return this.roles.stream()
-                .map(SimpleGrantedAuthority::new)
-                .collect(Collectors.toList());
+        return AuthorityRegistry.ofRoles(this.roles).getAuthorities();
     }
 
     @Override
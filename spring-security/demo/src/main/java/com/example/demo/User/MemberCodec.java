@@ -0,0 +1,96 @@
+package com.example.demo.User;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+// MemberStore의 로그/스냅샷 레코드 인코딩
+// 레코드 : [int length][int crc32][long lsn][body]   (length = lsn + body 길이, crc는 lsn + body 대상)
+// body   : id, username, password, nickname, address, phone, profileImg, roles
+// 문자열은 [int 길이][UTF-8 bytes], null이면 길이 -1
+class MemberCodec {
+
+    static final int HEADER_SIZE = 16;
+
+    private MemberCodec() {
+    }
+
+    static byte[] encode(Member member) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(member.getId());
+            writeString(out, member.getUsername());
+            writeString(out, member.getPassword());
+            writeString(out, member.getNickname());
+            writeString(out, member.getAddress());
+            writeString(out, member.getPhone());
+            writeString(out, member.getProfileImg());
+            List<String> roles = member.getRoles();
+            out.writeInt(roles.size());
+            for (String role : roles) {
+                writeString(out, role);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static Member decode(ByteBuffer body) {
+        long id = body.getLong();
+        Member.MemberBuilder builder = Member.builder()
+                .id(id)
+                .username(readString(body))
+                .password(readString(body))
+                .nickname(readString(body))
+                .address(readString(body))
+                .phone(readString(body))
+                .profileImg(readString(body));
+        int roleCount = body.getInt();
+        List<String> roles = new ArrayList<>(roleCount);
+        for (int i = 0; i < roleCount; i++) {
+            roles.add(readString(body));
+        }
+        return builder.roles(roles).build();
+    }
+
+    // out에 레코드 하나를 쓴다. out은 heap buffer 이고 공간이 충분해야 한다.
+    static void writeRecord(ByteBuffer out, long lsn, byte[] body, CRC32 crc) {
+        int start = out.position();
+        out.putInt(8 + body.length);
+        out.putInt(0);
+        out.putLong(lsn);
+        out.put(body);
+        crc.reset();
+        crc.update(out.array(), out.arrayOffset() + start + 8, 8 + body.length);
+        out.putInt(start + 4, (int) crc.getValue());
+    }
+
+    static int recordSize(byte[] body) {
+        return HEADER_SIZE + body.length;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer body) {
+        int length = body.getInt();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        body.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
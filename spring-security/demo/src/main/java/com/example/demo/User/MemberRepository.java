@@ -1,68 +1,151 @@
 package com.example.demo.User;
 
+import com.example.demo.util.AuthorityRegistry;
+import com.example.demo.util.RoleSet;
 import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Repository;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+// id -> Member 기본 map과 username -> id 보조 인덱스를 같이 관리하는 메모리 저장소
+// findByUsername은 전체를 돌지 않고 인덱스로 O(1) 조회한다.
+// 토큰 재발급은 권한만 필요하므로 username -> RoleSet projection도 저장할 때 같이 만들어 둔다.
+// 변경 내용은 MemberStore(스냅샷 + append-only 로그)에 기록되어 재시작해도 유지된다.
 @Slf4j
 @Repository
+@RequiredArgsConstructor
 public class MemberRepository {
 
-    private static final Map<Long, Member> members = new ConcurrentHashMap<>();
-    private static long sequene = 0L;
+    private final Map<Long, Member> members = new ConcurrentHashMap<>();
+    private final Map<String, Long> usernameIndex = new ConcurrentHashMap<>();
+    private final Map<String, RoleSet> roleSets = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final MemberStore memberStore;
+    private final PasswordEncoder passwordEncoder;
 
+    // 로그가 디스크에 기록될 때까지 기다린다. (group commit) 메모리에는 기록이 끝난 뒤에 반영된다.
+    // 저장 순서 : username 선점(putIfAbsent) -> 로그 기록 -> 기본 map 저장 -> 이전 username 인덱스 정리
+    // username을 먼저 선점하기 때문에 동시에 같은 username으로 가입해도 한 명만 성공한다.
+    // 선점만 된 username은 기본 map에 회원이 없어서 조회되지 않고, 기록에 실패하면 선점을 되돌린다.
     public Member save(Member member) {
-        member.setId(++sequene);
-        members.put(member.getId(), member);
+        if (member.getId() == null) {
+            member.setId(sequence.incrementAndGet());
+        }
+        Long id = member.getId();
+        Long owner = usernameIndex.putIfAbsent(member.getUsername(), id);
+        if (owner != null && !owner.equals(id)) {
+            throw new IllegalStateException("이미 사용중인 username 입니다. " + member.getUsername());
+        }
+        try {
+            memberStore.append(member, () -> saveInMemory(member)).join();
+        } catch (RuntimeException e) {
+            if (owner == null) usernameIndex.remove(member.getUsername(), id);
+            throw e;
+        }
         return member;
     }
 
+    private void saveInMemory(Member member) {
+        Long id = member.getId();
+        Member previous = members.put(id, member);
+        roleSets.put(member.getUsername(), AuthorityRegistry.ofRoles(member.getRoles()));
+        if (previous != null && !previous.getUsername().equals(member.getUsername())) {
+            usernameIndex.remove(previous.getUsername(), id);
+            roleSets.remove(previous.getUsername());
+        }
+    }
+
+    // MemberStore 복구 시 호출. 레코드 순서대로 적용하므로 같은 id는 마지막 값이 남는다.
+    private void applyRecovered(Member member) {
+        Member previous = members.put(member.getId(), member);
+        if (previous != null && !previous.getUsername().equals(member.getUsername())) {
+            usernameIndex.remove(previous.getUsername(), previous.getId());
+            roleSets.remove(previous.getUsername());
+        }
+        usernameIndex.put(member.getUsername(), member.getId());
+        roleSets.put(member.getUsername(), AuthorityRegistry.ofRoles(member.getRoles()));
+        sequence.accumulateAndGet(member.getId(), Math::max);
+    }
+
     public Member findById(Long id) {
         return members.get(id);
     }
 
     public Optional<Member> findByUsername(String username) {
-        for (Member member : members.values()) {
-            if (member.getUsername().equals(username)) {
-                return Optional.ofNullable(member);
-            }
-        }
-        return Optional.empty();
+        Long id = usernameIndex.get(username);
+        if (id == null) return Optional.empty();
+        //username을 바꾸는 중(선점만 되고 기록 전)이면 기본 map에는 아직 이전 username의 회원이 있다.
+        Member member = members.get(id);
+        return member != null && member.getUsername().equals(username) ? Optional.of(member) : Optional.empty();
+    }
+
+    // 마지막으로 저장된 회원의 권한. Member를 꺼내서 roles를 다시 변환하지 않는다. 없는 회원이면 null
+    public RoleSet findRoleSetByUsername(String username) {
+        return roleSets.get(username);
+    }
+
+    public int count() {
+        return members.size();
+    }
+
+    /*
+    * 접두사({bcrypt} 등) 없는 예전 평문 비밀번호를 시작할 때 한 번 bcrypt 해시로 바꿔 저장한다.
+    * 그래서 로그인할 때 평문 비교(NoOp)로 돌아가는 경로가 없다. 바꾼 회원이 있으면 스냅샷을 새로 내려서
+    * 평문이 남아 있는 이전 로그 세그먼트와 스냅샷도 지운다.
+    * BCrypt는 CPU만 쓰므로 회원이 많으면 코어 수만큼 나눠서 해시한다.
+    * */
+    private void migrateLegacyPasswords() {
+        List<Member> legacy = members.values().stream()
+                .filter(member -> member.getPassword() != null && !member.getPassword().startsWith("{"))
+                .toList();
+        if (legacy.isEmpty()) return;
+        //저장된 Member는 다른 쓰레드가 읽고 있을 수 있으므로 복사본을 저장한다.
+        legacy.parallelStream().forEach(member -> save(member.toBuilder()
+                .password(passwordEncoder.encode(member.getPassword()))
+                .roles(new ArrayList<>(member.getRoles()))
+                .build()));
+        memberStore.snapshot();
+        log.info("평문 비밀번호 {}건을 bcrypt 해시로 변경", legacy.size());
     }
 
     @PostConstruct
     public void addMember(){
+        memberStore.recover(this::applyRecovered, members::values);
+        migrateLegacyPasswords();
+        //이전에 저장된 회원이 있으면 기본 회원은 다시 만들지 않는다.
+        if (findByUsername("username").isPresent()) return;
+
         Member member = Member.builder()
-                .id(1L)
                 .username("username")
-                .password("password")
+                //비밀번호는 회원을 만들 때 한 번만 해시해서 저장
+                .password(passwordEncoder.encode("password"))
                 .nickname("nickname")
                 .address("address")
                 .phone("phone")
                 .profileImg("null")
                 .build();
-        members.put(1L, member);
-
-        members.get(1L).getRoles().add("admin");
-        log.info(members.get(1L).getNickname());
+        member.getRoles().add("admin");
+        save(member);
+        log.info(member.getNickname());
 
         Member member2 = Member.builder()
-                .id(2L)
                 .username("username2")
-                .password("password2")
+                .password(passwordEncoder.encode("password2"))
                 .nickname("nickname2")
                 .address("address2")
                 .phone("phone2")
                 .profileImg("null2")
                 .build();
-        members.put(2L, member2);
-
-        members.get(2L).getRoles().add("user");
-        log.info(members.get(2L).getRoles().get(0));
+        member2.getRoles().add("user");
+        save(member2);
+        log.info(member2.getRoles().get(0));
     }
 }
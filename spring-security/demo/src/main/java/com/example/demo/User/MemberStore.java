@@ -0,0 +1,429 @@
+package com.example.demo.User;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * MemberRepository의 로컬 영속화 엔진. 스냅샷 + append-only 로그 구조이다.
+ *
+ * - save는 레코드를 로그에 추가하고, 커밋 쓰레드가 쌓여있는 레코드를 한 번에 write + fsync 한다. (group commit)
+ *   메모리 반영은 fsync가 끝난 뒤 커밋 쓰레드가 lsn 순서대로 한다. 기록에 실패한 레코드는 메모리에도 반영되지 않는다.
+ * - 로그가 snapshot-every 건을 넘으면 전체 회원을 스냅샷 파일로 내리고, 스냅샷에 포함된 로그 세그먼트는 지운다.
+ * - 시작할 때는 스냅샷을 memory-mapped I/O로 읽고, 그 이후의 로그만 다시 적용한다.
+ *
+ * 모든 레코드에는 증가하는 lsn이 붙는다. 로그 세그먼트 파일 이름은 그 세그먼트의 첫 lsn이다.
+ * 복구 중 손상된 레코드를 만나면 거기까지만 적용한다. 그 뒤 레코드와 이후 세그먼트는 사이의 변경이 빠져 있을 수 있으므로
+ * 적용하지 않고, 이후 세그먼트는 .discarded를 붙여서 옆으로 치워 둔다.
+ */
+@Slf4j
+@Component
+public class MemberStore {
+
+    private static final String SNAPSHOT_FILE = "members.snapshot";
+    private static final String SNAPSHOT_TMP_FILE = "members.snapshot.tmp";
+    private static final String SEGMENT_PREFIX = "members-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String DISCARDED_SUFFIX = ".discarded";
+    private static final long SNAPSHOT_MAGIC = 0x4D454D534E415031L; // "MEMSNAP1"
+    private static final int SNAPSHOT_HEADER_SIZE = 16;
+    private static final int MAP_WINDOW = 64 * 1024 * 1024;
+
+    private enum Kind {
+        RECORD, ROLL, STOP
+    }
+
+    // apply : RECORD는 메모리 반영, ROLL은 스냅샷으로 내릴 회원 목록 복사. 커밋 쓰레드가 기록이 끝난 뒤 실행한다.
+    private record Pending(Kind kind, long lsn, byte[] body, Runnable apply, CompletableFuture<Void> future) {
+    }
+
+    private final boolean enabled;
+    private final Path dir;
+    private final boolean fsync;
+    private final int maxBatch;
+    private final long snapshotEvery;
+
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    //lsn 발급 + 큐 적재를 한 덩어리로 묶어서 lsn 순서와 큐 순서(= 기록, 메모리 반영 순서)를 같게 만든다.
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final AtomicBoolean snapshotRunning = new AtomicBoolean();
+    private final ExecutorService snapshotExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "member-store-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private long lastLsn;
+    private Supplier<Collection<Member>> snapshotSource;
+
+    //아래 필드는 커밋 쓰레드만 사용
+    private Thread committer;
+    private FileChannel segment;
+    //지금 세그먼트에서 fsync까지 끝난 크기. 기록에 실패하면 여기로 되돌린다.
+    private long segmentSize;
+    private ByteBuffer writeBuffer = ByteBuffer.allocate(64 * 1024);
+    private final CRC32 crc = new CRC32();
+    private long recordsSinceSnapshot;
+
+    public MemberStore(@Value("${member.store.enabled:true}") boolean enabled,
+                       @Value("${member.store.dir:./data/members}") String dir,
+                       @Value("${member.store.fsync:true}") boolean fsync,
+                       @Value("${member.store.max-batch:256}") int maxBatch,
+                       @Value("${member.store.snapshot-every:100000}") long snapshotEvery) {
+        this.enabled = enabled;
+        this.dir = Paths.get(dir);
+        this.fsync = fsync;
+        this.maxBatch = maxBatch;
+        this.snapshotEvery = snapshotEvery;
+    }
+
+    // 스냅샷과 로그를 읽어서 apply로 넘기고, 새 로그 세그먼트를 열어 커밋 쓰레드를 시작한다.
+    public void recover(Consumer<Member> apply, Supplier<Collection<Member>> snapshotSource) {
+        this.snapshotSource = snapshotSource;
+        if (!enabled) return;
+        long start = System.nanoTime();
+        try {
+            Files.createDirectories(dir);
+            long snapshotLsn = 0;
+            long snapshotCount = 0;
+            Path snapshot = dir.resolve(SNAPSHOT_FILE);
+            if (Files.exists(snapshot)) {
+                try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+                    MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, SNAPSHOT_HEADER_SIZE);
+                    if (header.getLong(0) != SNAPSHOT_MAGIC) {
+                        throw new IllegalStateException("member 스냅샷 파일 형식이 아닙니다. " + snapshot);
+                    }
+                    snapshotLsn = header.getLong(8);
+                    RecordReader reader = new RecordReader(channel, SNAPSHOT_HEADER_SIZE);
+                    ByteBuffer body;
+                    while ((body = reader.next()) != null) {
+                        apply.accept(MemberCodec.decode(body));
+                        snapshotCount++;
+                    }
+                }
+            }
+
+            long recovered = snapshotLsn;
+            long logCount = 0;
+            boolean corrupted = false;
+            for (Path path : listSegments()) {
+                if (corrupted) {
+                    //손상된 레코드 뒤의 세그먼트는 적용하지 않는다. 지우지 않고 이름만 바꿔 둔다.
+                    Path discarded = path.resolveSibling(path.getFileName() + DISCARDED_SUFFIX);
+                    log.warn("member 로그 손상 이후 세그먼트 적용 안 함 : {} -> {}", path, discarded);
+                    Files.move(path, discarded, StandardCopyOption.REPLACE_EXISTING);
+                    continue;
+                }
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                    RecordReader reader = new RecordReader(channel, 0);
+                    ByteBuffer body;
+                    while ((body = reader.next()) != null) {
+                        if (reader.lsn <= snapshotLsn) continue;
+                        apply.accept(MemberCodec.decode(body));
+                        recovered = Math.max(recovered, reader.lsn);
+                        logCount++;
+                    }
+                    //비정상 종료로 마지막 레코드가 덜 쓰였거나 중간 레코드가 손상되었으면 그 뒤를 잘라낸다.
+                    if (reader.position < channel.size()) {
+                        log.warn("member 로그 손상, {} 바이트 잘라냄 : {}", channel.size() - reader.position, path);
+                        channel.truncate(reader.position);
+                        channel.force(true);
+                        corrupted = true;
+                    }
+                }
+            }
+            this.lastLsn = recovered;
+            this.recordsSinceSnapshot = logCount;
+            this.segment = openSegment(recovered + 1);
+            this.segmentSize = segment.size();
+            log.info("member store 복구 완료 : 스냅샷 {}건, 로그 {}건, {} ms",
+                    snapshotCount, logCount, (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException e) {
+            throw new UncheckedIOException("member store 복구 실패", e);
+        }
+        committer = new Thread(this::runCommitLoop, "member-store-committer");
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    // 레코드를 로그에 추가한다. 디스크에 기록되면 커밋 쓰레드가 applyInMemory를 lsn 순서대로 실행하고 future를 완료한다.
+    // 기록에 실패하면 applyInMemory는 실행되지 않고 future가 예외로 완료된다.
+    public CompletableFuture<Void> append(Member member, Runnable applyInMemory) {
+        if (!enabled) {
+            applyInMemory.run();
+            return CompletableFuture.completedFuture(null);
+        }
+        //인코딩은 락 밖에서
+        byte[] body = MemberCodec.encode(member);
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        appendLock.lock();
+        try {
+            queue.add(new Pending(Kind.RECORD, ++lastLsn, body, applyInMemory, future));
+        } finally {
+            appendLock.unlock();
+        }
+        return future;
+    }
+
+    // 현재 회원 전체를 스냅샷으로 내리고, 스냅샷에 포함된 로그 세그먼트를 지운다.
+    public void snapshot() {
+        if (!enabled || !snapshotRunning.compareAndSet(false, true)) return;
+        long start = System.nanoTime();
+        try {
+            long snapshotLsn;
+            List<Member> members = new ArrayList<>();
+            Pending roll;
+            appendLock.lock();
+            try {
+                snapshotLsn = lastLsn;
+                //이후 레코드는 새 세그먼트(snapshotLsn + 1)로 가도록 커밋 쓰레드에 알린다.
+                //메모리는 기록이 끝난 레코드까지만 반영되어 있으므로, 회원 목록은 커밋 쓰레드가 snapshotLsn까지 반영한 뒤에 복사한다.
+                roll = new Pending(Kind.ROLL, snapshotLsn, null, () -> members.addAll(snapshotSource.get()), new CompletableFuture<>());
+                queue.add(roll);
+            } finally {
+                appendLock.unlock();
+            }
+            roll.future().join();
+            writeSnapshot(members, snapshotLsn);
+            for (Path path : listSegments()) {
+                if (segmentFirstLsn(path) <= snapshotLsn) {
+                    Files.deleteIfExists(path);
+                }
+            }
+            log.info("member 스냅샷 완료 : {}건, lsn {}, {} ms",
+                    members.size(), snapshotLsn, (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            log.warn("member 스냅샷 실패 : {}", e.getMessage());
+        } finally {
+            snapshotRunning.set(false);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        if (committer == null) return;
+        Pending stop = new Pending(Kind.STOP, 0, null, null, new CompletableFuture<>());
+        queue.add(stop);
+        committer.join();
+        snapshotExecutor.shutdown();
+    }
+
+    private void writeSnapshot(List<Member> members, long snapshotLsn) throws IOException {
+        Path tmp = dir.resolve(SNAPSHOT_TMP_FILE);
+        CRC32 snapshotCrc = new CRC32();
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1024 * 1024);
+            buffer.putLong(SNAPSHOT_MAGIC);
+            buffer.putLong(snapshotLsn);
+            for (Member member : members) {
+                byte[] body = MemberCodec.encode(member);
+                int size = MemberCodec.recordSize(body);
+                if (buffer.remaining() < size) {
+                    writeFully(channel, buffer);
+                    if (buffer.capacity() < size) buffer = ByteBuffer.allocate(size);
+                }
+                MemberCodec.writeRecord(buffer, snapshotLsn, body, snapshotCrc);
+            }
+            writeFully(channel, buffer);
+            channel.force(true);
+        }
+        Files.move(tmp, dir.resolve(SNAPSHOT_FILE), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void runCommitLoop() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        try {
+            while (true) {
+                batch.add(queue.take());
+                queue.drainTo(batch, maxBatch - 1);
+                boolean stop = commit(batch);
+                batch.clear();
+                if (stop) break;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            try {
+                segment.close();
+            } catch (IOException e) {
+                log.warn("member 로그 세그먼트 닫기 실패 : {}", e.getMessage());
+            }
+        }
+    }
+
+    // batch를 한 번의 write + fsync로 기록한다. ROLL / STOP을 만나면 그 전까지를 먼저 기록한다.
+    private boolean commit(List<Pending> batch) {
+        List<Pending> written = new ArrayList<>(batch.size());
+        try {
+            for (Pending pending : batch) {
+                if (pending.kind() == Kind.RECORD) {
+                    ensureCapacity(MemberCodec.recordSize(pending.body()));
+                    MemberCodec.writeRecord(writeBuffer, pending.lsn(), pending.body(), crc);
+                    written.add(pending);
+                    continue;
+                }
+                flush(written);
+                if (pending.kind() == Kind.ROLL) {
+                    pending.apply().run();
+                    segment.close();
+                    segment = openSegment(pending.lsn() + 1);
+                    segmentSize = segment.size();
+                    recordsSinceSnapshot = 0;
+                    pending.future().complete(null);
+                } else {
+                    pending.future().complete(null);
+                    return true;
+                }
+            }
+            flush(written);
+        } catch (IOException | RuntimeException e) {
+            log.error("member 로그 기록 실패", e);
+            writeBuffer.clear();
+            discardUnsynced();
+            //이미 기록되고 반영된 레코드의 future는 완료되어 있어서 그대로 남는다.
+            batch.forEach(pending -> pending.future().completeExceptionally(e));
+        }
+        if (recordsSinceSnapshot >= snapshotEvery && !snapshotRunning.get()) {
+            snapshotExecutor.execute(this::snapshot);
+        }
+        return false;
+    }
+
+    // 기록(fsync)이 끝난 뒤에 메모리에 반영하고 future를 완료한다.
+    private void flush(List<Pending> written) throws IOException {
+        if (written.isEmpty()) return;
+        writeFully(segment, writeBuffer);
+        if (fsync) {
+            segment.force(false);
+        }
+        segmentSize = segment.size();
+        recordsSinceSnapshot += written.size();
+        for (Pending pending : written) {
+            try {
+                pending.apply().run();
+                pending.future().complete(null);
+            } catch (RuntimeException e) {
+                pending.future().completeExceptionally(e);
+            }
+        }
+        written.clear();
+    }
+
+    // 쓰다 만 레코드가 남아 있으면 다음 레코드가 그 뒤에 붙어서 복구할 때 거기서 멈춘다. 마지막 fsync 위치로 잘라낸다.
+    private void discardUnsynced() {
+        try {
+            if (segment.size() > segmentSize) {
+                segment.truncate(segmentSize);
+            }
+        } catch (IOException e) {
+            log.error("member 로그 세그먼트 되돌리기 실패", e);
+        }
+    }
+
+    private void ensureCapacity(int size) {
+        if (writeBuffer.remaining() >= size) return;
+        ByteBuffer bigger = ByteBuffer.allocate(Math.max(writeBuffer.capacity() * 2, writeBuffer.position() + size));
+        writeBuffer.flip();
+        bigger.put(writeBuffer);
+        writeBuffer = bigger;
+    }
+
+    private FileChannel openSegment(long firstLsn) throws IOException {
+        Path path = dir.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstLsn, SEGMENT_SUFFIX));
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted((a, b) -> Long.compare(segmentFirstLsn(a), segmentFirstLsn(b)))
+                    .toList();
+        }
+    }
+
+    private static long segmentFirstLsn(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // 파일을 MAP_WINDOW 크기로 나눠서 mmap 하면서 레코드를 하나씩 읽는다.
+    // 길이나 crc가 맞지 않는 레코드를 만나면 거기서 멈추고, position은 마지막 정상 레코드의 끝을 가리킨다.
+    private static final class RecordReader {
+        private final FileChannel channel;
+        private final long size;
+        private final CRC32 crc = new CRC32();
+        private MappedByteBuffer window;
+        private long windowStart;
+        long position;
+        long lsn;
+
+        RecordReader(FileChannel channel, long start) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+            this.position = start;
+        }
+
+        ByteBuffer next() throws IOException {
+            if (size - position < MemberCodec.HEADER_SIZE) return null;
+            map(position, 8);
+            int offset = (int) (position - windowStart);
+            int length = window.getInt(offset);
+            int expectedCrc = window.getInt(offset + 4);
+            if (length < 8 || position + 8 + length > size) return null;
+            map(position, 8 + length);
+            offset = (int) (position - windowStart);
+            crc.reset();
+            crc.update(window.slice(offset + 8, length));
+            if ((int) crc.getValue() != expectedCrc) return null;
+            lsn = window.getLong(offset + 8);
+            ByteBuffer body = window.slice(offset + 16, length - 8);
+            position += 8 + length;
+            return body;
+        }
+
+        private void map(long from, int bytes) throws IOException {
+            if (window != null && from >= windowStart && from + bytes <= windowStart + window.capacity()) return;
+            long mapSize = Math.min(size - from, Math.max(MAP_WINDOW, bytes));
+            window = channel.map(FileChannel.MapMode.READ_ONLY, from, mapSize);
+            windowStart = from;
+        }
+    }
+}
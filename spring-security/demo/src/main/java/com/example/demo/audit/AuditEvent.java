@@ -0,0 +1,14 @@
+package com.example.demo.audit;
+
+/**
+ * 인증 감사 이벤트 한 건. 파일에는 JSON 한 줄로 기록된다. (AuthAuditLog)
+ *
+ * username : 알 수 없으면 null (형식이 잘못된 토큰, 본문을 읽지 못한 로그인 등)
+ * reason : 실패 이유 코드 (AuthMetrics의 outcome 이름 등), 성공이면 null
+ */
+public record AuditEvent(long timestamp, Type type, boolean success, String username, String reason) {
+
+    public enum Type {
+        LOGIN, REISSUE, LOGOUT, TOKEN_REJECTED
+    }
+}
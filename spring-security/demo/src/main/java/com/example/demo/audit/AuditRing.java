@@ -0,0 +1,83 @@
+package com.example.demo.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 크기가 정해진 lock-free 링 버퍼. 여러 쓰레드가 동시에 넣고 꺼낼 수 있다. (MPMC)
+ *
+ * 칸마다 sequence를 두고 tail/head를 CAS로 한 칸씩 가져간다.
+ * - 넣기 : sequence == tail 이면 빈 칸, tail을 가져간 뒤 값을 쓰고 sequence = tail + 1
+ * - 꺼내기 : sequence == head + 1 이면 값이 있는 칸, head를 가져간 뒤 값을 읽고 sequence = head + capacity
+ * 가득 차거나 비어 있으면 기다리지 않고 false / null을 돌려준다.
+ */
+final class AuditRing<E> {
+
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    AuditRing(int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("링 버퍼 크기는 2 이상이어야 합니다. " + capacity);
+        }
+        //2의 거듭제곱으로 올림
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) sequences.set(i, i);
+    }
+
+    // 가득 차 있으면 false
+    boolean offer(E element) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.set(index, element);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (difference < 0) {
+                //한 바퀴 전 값이 아직 꺼내지지 않음
+                return false;
+            }
+            //다른 쓰레드가 먼저 가져간 칸, tail을 다시 읽는다.
+        }
+    }
+
+    // 비어 있으면 null
+    E poll() {
+        while (true) {
+            long position = head.get();
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - (position + 1);
+            if (difference == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    E element = elements.get(index);
+                    elements.set(index, null);
+                    sequences.set(index, position + mask + 1);
+                    return element;
+                }
+            } else if (difference < 0) {
+                return null;
+            }
+        }
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    // 대략적인 개수 (동시에 넣고 꺼내는 중이면 정확하지 않다)
+    int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+}
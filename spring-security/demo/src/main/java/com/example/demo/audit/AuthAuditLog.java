@@ -0,0 +1,260 @@
+package com.example.demo.audit;
+
+import com.example.demo.audit.AuditEvent.Type;
+import com.example.demo.util.AuthMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 인증 감사 이벤트(로그인 성공/실패, 재발급, 로그아웃, 거절된 토큰) 스트림.
+ *
+ * 요청 쓰레드는 이벤트를 lock-free 링 버퍼(AuditRing)에 넣고 바로 돌아간다. 락도, 파일 I/O도, 대기도 없다.
+ * 백그라운드 쓰레드가 링을 비우면서 batch-size 또는 flush-interval-ms 단위로 모아 로컬 파일에 JSON 한 줄씩 쓴다.
+ * 파일이 max-file-bytes를 넘으면 auth-audit.log -> auth-audit.log.1 -> ... 으로 밀고 max-files개만 남긴다.
+ *
+ * 링이 가득 차면 overflow 정책에 따라 새 이벤트(DROP_NEWEST) 또는 가장 오래된 이벤트(DROP_OLDEST)를 버리고
+ * auth.audit.dropped 지표를 올린다. 어느 쪽이든 요청 쓰레드를 막지 않는다.
+ */
+@Slf4j
+@Component
+public class AuthAuditLog {
+
+    public enum Overflow {
+        DROP_NEWEST, DROP_OLDEST
+    }
+
+    private static final String FILE_NAME = "auth-audit.log";
+    //DROP_OLDEST에서 다른 쓰레드와 경합해서 빈 칸을 뺏기면 몇 번만 다시 시도하고 새 이벤트를 버린다.
+    private static final int DROP_OLDEST_ATTEMPTS = 4;
+
+    private final AuthMetrics authMetrics;
+    private final boolean enabled;
+    private final Path dir;
+    private final Path current;
+    private final AuditRing<AuditEvent> ring;
+    private final Overflow overflow;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long maxFileBytes;
+    private final int maxFiles;
+
+    private volatile boolean running = true;
+    private Thread writer;
+
+    //아래 필드는 writer 쓰레드만 사용
+    private final StringBuilder batch = new StringBuilder(16 * 1024);
+    private FileChannel file;
+    private long fileSize;
+
+    public AuthAuditLog(AuthMetrics authMetrics,
+                        @Value("${audit.enabled:true}") boolean enabled,
+                        @Value("${audit.dir:./data/audit}") String dir,
+                        @Value("${audit.capacity:16384}") int capacity,
+                        @Value("${audit.overflow:DROP_NEWEST}") Overflow overflow,
+                        @Value("${audit.batch-size:512}") int batchSize,
+                        @Value("${audit.flush-interval-ms:50}") long flushIntervalMs,
+                        @Value("${audit.max-file-bytes:10485760}") long maxFileBytes,
+                        @Value("${audit.max-files:5}") int maxFiles) {
+        this.authMetrics = authMetrics;
+        this.enabled = enabled;
+        this.dir = Paths.get(dir);
+        this.current = this.dir.resolve(FILE_NAME);
+        this.ring = new AuditRing<>(capacity);
+        this.overflow = overflow;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.maxFileBytes = maxFileBytes;
+        this.maxFiles = Math.max(1, maxFiles);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) return;
+        try {
+            Files.createDirectories(dir);
+            openFile();
+        } catch (IOException e) {
+            throw new UncheckedIOException("감사 로그 파일을 열지 못했습니다. " + current, e);
+        }
+        writer = new Thread(this::runWriteLoop, "auth-audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // writer 쓰레드가 링에 남은 이벤트를 모두 기록하고 파일을 닫을 때까지 기다린다.
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (writer == null) return;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    public void success(Type type, String username) {
+        publish(type, true, username, null);
+    }
+
+    // reason은 AuthMetrics outcome 이름처럼 정해진 코드. 파일에는 소문자로 쓴다.
+    public void failure(Type type, String username, String reason) {
+        publish(type, false, username, reason);
+    }
+
+    public int pendingCount() {
+        return ring.size();
+    }
+
+    private void publish(Type type, boolean success, String username, String reason) {
+        if (!enabled) return;
+        AuditEvent event = new AuditEvent(System.currentTimeMillis(), type, success, username, reason);
+        if (ring.offer(event)) return;
+        if (overflow == Overflow.DROP_OLDEST) {
+            for (int i = 0; i < DROP_OLDEST_ATTEMPTS; i++) {
+                if (ring.poll() != null) authMetrics.auditDropped();
+                if (ring.offer(event)) return;
+            }
+        }
+        authMetrics.auditDropped();
+    }
+
+    private void runWriteLoop() {
+        int pending = 0;
+        long firstAt = 0;
+        try {
+            while (running) {
+                AuditEvent event = ring.poll();
+                if (event != null) {
+                    if (pending++ == 0) firstAt = System.nanoTime();
+                    append(event);
+                    if (pending >= batchSize) {
+                        write();
+                        pending = 0;
+                    }
+                    continue;
+                }
+                if (pending == 0) {
+                    LockSupport.parkNanos(flushIntervalNanos);
+                    continue;
+                }
+                //첫 이벤트 이후 flush-interval이 지나면 batch-size가 안 돼도 쓴다.
+                long remaining = firstAt + flushIntervalNanos - System.nanoTime();
+                if (remaining > 0) {
+                    LockSupport.parkNanos(remaining);
+                    continue;
+                }
+                write();
+                pending = 0;
+            }
+            //종료 전에 남아있는 이벤트를 모두 기록한다.
+            AuditEvent event;
+            while ((event = ring.poll()) != null) {
+                append(event);
+                if (++pending >= batchSize) {
+                    write();
+                    pending = 0;
+                }
+            }
+            write();
+        } finally {
+            try {
+                file.close();
+            } catch (IOException e) {
+                log.warn("감사 로그 파일 닫기 실패 : {}", e.getMessage());
+            }
+        }
+    }
+
+    // {"ts":"2024-01-01T00:00:00Z","type":"login","success":false,"user":"..","reason":"bad_credentials"}
+    private void append(AuditEvent event) {
+        batch.append("{\"ts\":\"").append(Instant.ofEpochMilli(event.timestamp()))
+                .append("\",\"type\":\"").append(event.type().name().toLowerCase(Locale.ROOT))
+                .append("\",\"success\":").append(event.success())
+                .append(",\"user\":");
+        string(event.username());
+        batch.append(",\"reason\":");
+        string(event.reason() == null ? null : event.reason().toLowerCase(Locale.ROOT));
+        batch.append("}\n");
+    }
+
+    private void string(String value) {
+        if (value == null) {
+            batch.append("null");
+            return;
+        }
+        batch.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                batch.append('\\').append(c);
+            } else if (c < 0x20) {
+                batch.append(String.format("\\u%04x", (int) c));
+            } else {
+                batch.append(c);
+            }
+        }
+        batch.append('"');
+    }
+
+    // 모아둔 batch를 write 한 번으로 기록한다. 실패하면 그 batch는 버린다. (요청 처리에는 영향 없음)
+    private void write() {
+        if (batch.length() == 0) return;
+        byte[] bytes = batch.toString().getBytes(StandardCharsets.UTF_8);
+        batch.setLength(0);
+        try {
+            if (fileSize > 0 && fileSize + bytes.length > maxFileBytes) {
+                rotate();
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                file.write(buffer);
+            }
+            fileSize += bytes.length;
+        } catch (IOException e) {
+            log.warn("감사 로그 기록 실패, {} 바이트 버림 : {}", bytes.length, e.getMessage());
+        }
+    }
+
+    // auth-audit.log -> .1, .1 -> .2 ... 가장 오래된 .max-files는 지운다.
+    private void rotate() throws IOException {
+        file.close();
+        try {
+            Files.deleteIfExists(rotated(maxFiles));
+            for (int i = maxFiles - 1; i >= 1; i--) {
+                Path from = rotated(i);
+                if (Files.exists(from)) {
+                    Files.move(from, rotated(i + 1), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            Files.move(current, rotated(1), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            //옮기다 실패해도 새(또는 기존) 파일을 열어서 계속 쓴다.
+            openFile();
+        }
+    }
+
+    private Path rotated(int index) {
+        return dir.resolve(FILE_NAME + "." + index);
+    }
+
+    private void openFile() throws IOException {
+        file = FileChannel.open(current, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        fileSize = file.size();
+    }
+}
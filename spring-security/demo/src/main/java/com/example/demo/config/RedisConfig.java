@@ -1,13 +1,20 @@
 package com.example.demo.config;
 
+import com.example.demo.service.RevocationEpochs;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.repository.configuration.EnableRedisRepositories;
 
+import java.time.Duration;
+
 @Configuration
 //@EnableRedisRepositories //Redis에 대한 CRUD를 수행해야 한다면 넣어줘야 한다.
 public class RedisConfig {
@@ -18,22 +25,43 @@ public class RedisConfig {
     @Value("${spring.data.redis.port}")
     private int port;
 
+    //Redis 명령 하나가 기다릴 수 있는 최대 시간. 기본값(60초) 그대로면 Redis가 느려질 때 요청 쓰레드가 다 묶인다.
+    @Value("${redis.breaker.command-timeout-ms:200}")
+    private long commandTimeoutMs;
+
+    //virtual 프로필(application-virtual.yml)이면 pub/sub 메시지 처리도 가상 쓰레드에서 한다.
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
     @Bean
     public RedisConnectionFactory redisConnectionFactory() {
-        return new LettuceConnectionFactory(host, port);
+        LettuceClientConfiguration clientConfiguration = LettuceClientConfiguration.builder()
+                .commandTimeout(Duration.ofMillis(commandTimeoutMs))
+                .build();
+        return new LettuceConnectionFactory(new RedisStandaloneConfiguration(host, port), clientConfiguration);
     }
 
     /*
     * Redis Cache를 사용하는 방법으로는 크게 RedisRepository와 RedisTemplate이 있다.
-    * 그중 이번에 사용할 RedisTmplate은 특정 Entity뿐만 아니라 원하는 여러가지 타입(자료형)을 넣을 수 있다.
-    * RedisTemplate를 선언한 후 원하는 key, Value 타입에 맞게 Operations(String, Hash, Set 등)를 선언하여 사용할 수 있다는 장점이 있다.
-    * 아래와 같이 제네릭을 <?, ?>으로 선언하여 RedisTemplate을 주입받을 때 원하는 key, value 타입을 지정하여 주입받을 수 있게 한다.
+    * 토큰 keyspace(refresh token, 로그아웃 epoch)는 key, value가 모두 문자열이라 Spring Boot가 만드는 StringRedisTemplate을 쓴다.
+    * 직렬화기를 지정하지 않은 RedisTemplate은 JDK 직렬화(JdkSerializationRedisSerializer)를 써서
+    * key, value마다 직렬화 헤더가 붙고(문자열 + 7바이트) redis-cli에서 key를 읽을 수도 없다.
+    * 예전에 JDK 직렬화로 저장된 key는 RedisKeyMigration이 옮긴다.
     * https://velog.io/@rnqhstlr2297/Spring-boot%EC%97%90%EC%84%9C-Redis-%EC%82%AC%EC%9A%A9%EB%B2%95
     * */
+
+    //로그아웃 이벤트(pub/sub)를 받아서 각 노드의 로컬 로그아웃 epoch를 갱신
     @Bean
-    public RedisTemplate<?, ?> redisTemplate() {
-        RedisTemplate<?, ?> redisTemplate = new RedisTemplate<>();
-        redisTemplate.setConnectionFactory(redisConnectionFactory());
-        return redisTemplate;
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory redisConnectionFactory,
+                                                                       RevocationEpochs revocationEpochs) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("redis-listener-");
+            executor.setVirtualThreads(true);
+            container.setTaskExecutor(executor);
+        }
+        container.addMessageListener(revocationEpochs, new ChannelTopic(RevocationEpochs.CHANNEL));
+        return container;
     }
 }
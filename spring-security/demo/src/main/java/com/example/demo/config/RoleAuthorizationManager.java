@@ -0,0 +1,33 @@
+package com.example.demo.config;
+
+import com.example.demo.util.AuthorityRegistry;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+
+import java.util.function.Supplier;
+
+// hasRole()의 비트셋 버전. 권한 문자열을 비교하지 않고 RoleSet의 비트 하나만 검사한다.
+public final class RoleAuthorizationManager implements AuthorizationManager<RequestAuthorizationContext> {
+
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+    private final long bit;
+
+    private RoleAuthorizationManager(long bit) {
+        this.bit = bit;
+    }
+
+    public static RoleAuthorizationManager hasRole(String role) {
+        return new RoleAuthorizationManager(AuthorityRegistry.bit(AuthorityRegistry.ROLE_PREFIX + role));
+    }
+
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, RequestAuthorizationContext context) {
+        Authentication current = authentication.get();
+        if (current == null || !current.isAuthenticated()) return DENIED;
+        return AuthorityRegistry.roleSetOf(current).contains(bit) ? GRANTED : DENIED;
+    }
+}
@@ -0,0 +1,267 @@
+package com.example.demo.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.security.authorization.AuthenticatedAuthorizationManager;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 경로별 인가 규칙과 JWT 검증 생략 여부를 한 곳에 선언하는 라우트 테이블. (SecurityConfig.routeTable)
+ *
+ * 규칙은 경로 세그먼트("/members/reissue" -> members, reissue) 트리로 컴파일한다.
+ * 조회는 요청 경로의 세그먼트 수만큼 자식 테이블을 한 번씩 찾는 것이라 규칙이 몇 개든 비용이 같고, 할당도 없다.
+ * JwtVerificationFilter(검증 생략)와 인가(AuthorizationFilter)가 같은 조회 결과를 쓴다. 결과는 요청 attribute에 한 번 저장한다.
+ *
+ * 패턴은 정확한 경로("/api1")와 하위 전체("/user/**", 자기 자신 포함)만 지원한다. 대소문자를 구분한다.
+ * 순서와 관계없이 가장 구체적인 규칙이 적용된다. (정확한 경로 > 가장 긴 "/**" > 기본 규칙)
+ *
+ * 선언한 규칙 목록(routes)은 reactive 체인(ReactiveSecurityConfig)이 같은 규칙을 pathMatchers로 다시 만들 때 쓴다.
+ */
+public final class RouteTable implements AuthorizationManager<RequestAuthorizationContext> {
+
+    private static final String MATCH_ATTRIBUTE = RouteTable.class.getName() + ".MATCH";
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+
+    private final Node root;
+    private final Route defaultRoute;
+    private final List<Route> routes;
+
+    private RouteTable(Node root, Route defaultRoute, List<Route> routes) {
+        this.root = root;
+        this.defaultRoute = defaultRoute;
+        this.routes = routes;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    // 요청 경로의 규칙. 같은 요청(같은 경로)에서 다시 부르면 저장해 둔 결과를 쓴다.
+    public Route match(HttpServletRequest request) {
+        String path = pathOf(request);
+        Object cached = request.getAttribute(MATCH_ATTRIBUTE);
+        //error/forward dispatch는 경로가 바뀌므로 경로까지 같을 때만 재사용
+        if (cached instanceof Match match && match.path().equals(path)) {
+            return match.route();
+        }
+        Route route = match(path);
+        request.setAttribute(MATCH_ATTRIBUTE, new Match(path, route));
+        return route;
+    }
+
+    public Route match(String path) {
+        Node node = root;
+        Route prefix = root.prefix;
+        int length = path.length();
+        //"/"는 세그먼트가 없는 경로 (root)
+        if (length > 1) {
+            int start = path.charAt(0) == '/' ? 1 : 0;
+            while (true) {
+                int end = path.indexOf('/', start);
+                if (end < 0) end = length;
+                node = node.child(path, start, end);
+                if (node == null) return prefix != null ? prefix : defaultRoute;
+                if (node.prefix != null) prefix = node.prefix;
+                if (end == length) break;
+                start = end + 1;
+            }
+        }
+        if (node.exact != null) return node.exact;
+        return prefix != null ? prefix : defaultRoute;
+    }
+
+    // 선언된 규칙, 가장 구체적인 것부터 (정확한 경로, 그다음 긴 "/**" 순). 앞에서부터 처음 맞는 규칙을 쓰면 match와 결과가 같다.
+    public List<Route> routes() {
+        return routes;
+    }
+
+    // 어느 규칙에도 맞지 않는 경로의 규칙
+    public Route defaultRoute() {
+        return defaultRoute;
+    }
+
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, RequestAuthorizationContext context) {
+        return match(context.getRequest()).authorization().check(authentication, context);
+    }
+
+    // DispatcherServlet이 "/"에 매핑되어 있으면 servletPath가 전체 경로이고 pathInfo는 없다.
+    private static String pathOf(HttpServletRequest request) {
+        String servletPath = request.getServletPath();
+        String pathInfo = request.getPathInfo();
+        return pathInfo == null ? servletPath : servletPath + pathInfo;
+    }
+
+    // 규칙이 허용하는 방식. add/anyRequest로 직접 넘긴 AuthorizationManager는 CUSTOM
+    public enum Access {
+        PERMIT_ALL, AUTHENTICATED, ROLE, CUSTOM
+    }
+
+    /**
+     * skipVerification : JwtVerificationFilter를 거치지 않는 경로 (로그인, 재발급처럼 access token이 없거나 만료된 채로 오는 요청)
+     * role : access가 ROLE일 때 필요한 권한 ("ROLE_" 없이), 아니면 null
+     */
+    public record Route(String pattern, AuthorizationManager<RequestAuthorizationContext> authorization, boolean skipVerification,
+                        Access access, String role) {
+    }
+
+    private record Match(String path, Route route) {
+    }
+
+    public static final class Builder {
+
+        private final Map<String, Route> routes = new HashMap<>();
+        private Route defaultRoute = new Route("**", AuthenticatedAuthorizationManager.authenticated(), false, Access.AUTHENTICATED, null);
+
+        public Builder permitAll(String... patterns) {
+            return add((authentication, context) -> GRANTED, false, Access.PERMIT_ALL, null, patterns);
+        }
+
+        // 토큰 없이 허용하고 JWT 검증도 하지 않는다.
+        public Builder publicEndpoint(String... patterns) {
+            return add((authentication, context) -> GRANTED, true, Access.PERMIT_ALL, null, patterns);
+        }
+
+        public Builder hasRole(String role, String... patterns) {
+            return add(RoleAuthorizationManager.hasRole(role), false, Access.ROLE, role, patterns);
+        }
+
+        public Builder authenticated(String... patterns) {
+            return add(AuthenticatedAuthorizationManager.authenticated(), false, Access.AUTHENTICATED, null, patterns);
+        }
+
+        public Builder anyRequest(AuthorizationManager<RequestAuthorizationContext> authorization) {
+            this.defaultRoute = new Route("**", authorization, false, Access.CUSTOM, null);
+            return this;
+        }
+
+        public Builder add(AuthorizationManager<RequestAuthorizationContext> authorization, boolean skipVerification, String... patterns) {
+            return add(authorization, skipVerification, Access.CUSTOM, null, patterns);
+        }
+
+        private Builder add(AuthorizationManager<RequestAuthorizationContext> authorization, boolean skipVerification,
+                            Access access, String role, String... patterns) {
+            for (String pattern : patterns) {
+                if (!pattern.startsWith("/")) {
+                    throw new IllegalArgumentException("경로 패턴은 /로 시작해야 합니다. " + pattern);
+                }
+                if (routes.putIfAbsent(pattern, new Route(pattern, authorization, skipVerification, access, role)) != null) {
+                    throw new IllegalArgumentException("같은 경로 패턴이 두 번 선언되었습니다. " + pattern);
+                }
+            }
+            return this;
+        }
+
+        public RouteTable build() {
+            MutableNode root = new MutableNode();
+            for (Route route : routes.values()) {
+                String pattern = route.pattern();
+                boolean prefix = pattern.endsWith("/**");
+                String path = prefix ? pattern.substring(0, pattern.length() - 3) : pattern;
+                MutableNode node = root;
+                for (String segment : segments(path)) {
+                    if (segment.contains("*")) {
+                        throw new IllegalArgumentException("정확한 경로와 /** 만 지원합니다. " + pattern);
+                    }
+                    node = node.children.computeIfAbsent(segment, key -> new MutableNode());
+                }
+                if (prefix) node.prefix = route;
+                else node.exact = route;
+            }
+            //정확한 경로 먼저, "/**"는 긴(더 깊은) 것부터. 겹치는 "/**"끼리는 깊은 쪽이 항상 더 길다.
+            List<Route> ordered = routes.values().stream()
+                    .sorted(Comparator.comparing((Route route) -> route.pattern().endsWith("/**"))
+                            .thenComparing(route -> -route.pattern().length())
+                            .thenComparing(Route::pattern))
+                    .toList();
+            return new RouteTable(root.compile(), defaultRoute, ordered);
+        }
+
+        // "/a/b" -> [a, b], "/" -> [], 조회(match)와 같은 규칙으로 자른다.
+        private static List<String> segments(String path) {
+            List<String> segments = new ArrayList<>();
+            if (path.length() <= 1) return segments;
+            int start = 1;
+            while (true) {
+                int end = path.indexOf('/', start);
+                if (end < 0) end = path.length();
+                segments.add(path.substring(start, end));
+                if (end == path.length()) return segments;
+                start = end + 1;
+            }
+        }
+    }
+
+    private static final class MutableNode {
+        private final Map<String, MutableNode> children = new HashMap<>();
+        private Route exact;
+        private Route prefix;
+
+        private Node compile() {
+            String[] keys = new String[tableSize(children.size())];
+            Node[] nodes = new Node[keys.length];
+            int mask = keys.length - 1;
+            for (Map.Entry<String, MutableNode> entry : children.entrySet()) {
+                int index = spread(entry.getKey().hashCode()) & mask;
+                while (keys[index] != null) index = (index + 1) & mask;
+                keys[index] = entry.getKey();
+                nodes[index] = entry.getValue().compile();
+            }
+            return new Node(keys, nodes, exact, prefix);
+        }
+
+        private static int tableSize(int size) {
+            //load factor 0.5 이하, 2의 거듭제곱
+            int tableSize = 2;
+            while (tableSize < size * 2) tableSize <<= 1;
+            return tableSize;
+        }
+    }
+
+    // 불변 트리 노드. 자식은 세그먼트 문자열 -> 노드 open addressing 테이블이라 조회할 때 substring을 만들지 않는다.
+    private static final class Node {
+        private final String[] keys;
+        private final Node[] children;
+        private final int mask;
+        private final Route exact;
+        private final Route prefix;
+
+        private Node(String[] keys, Node[] children, Route exact, Route prefix) {
+            this.keys = keys;
+            this.children = children;
+            this.mask = keys.length - 1;
+            this.exact = exact;
+            this.prefix = prefix;
+        }
+
+        // path[start, end) 세그먼트에 해당하는 자식
+        private Node child(String path, int start, int end) {
+            int length = end - start;
+            //String.hashCode와 같은 계산
+            int hash = 0;
+            for (int i = start; i < end; i++) hash = 31 * hash + path.charAt(i);
+            int index = spread(hash) & mask;
+            String key;
+            while ((key = keys[index]) != null) {
+                if (key.length() == length && path.regionMatches(start, key, 0, length)) {
+                    return children[index];
+                }
+                index = (index + 1) & mask;
+            }
+            return null;
+        }
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
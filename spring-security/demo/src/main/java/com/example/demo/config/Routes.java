@@ -0,0 +1,24 @@
+package com.example.demo.config;
+
+/*
+* 경로별 인가 규칙. 서블릿 체인(SecurityConfig)과 reactive 체인(ReactiveSecurityConfig)이 같은 규칙을 쓴다.
+* 선언 순서와 관계없이 가장 구체적인 규칙이 적용되고, 어디에도 맞지 않으면 인증만 확인한다.
+* publicEndpoint는 JwtVerificationFilter도 거치지 않는다. (로그인, 재발급은 access token이 없거나 만료된 채로 온다)
+* */
+public final class Routes {
+
+    private Routes() {
+    }
+
+    public static RouteTable table() {
+        return RouteTable.builder()
+                .publicEndpoint("/", "/members/sign-in", "/members/reissue", "/favicon.ico")
+                .permitAll("/login/**", "/img/**", "/error/**")
+                //헬스체크와 지표 수집(Prometheus scrape)은 토큰 없이 허용
+                //actuator는 management.server.port(내부 주소)에서만 열리므로 서비스 포트에서는 /actuator/prometheus가 404다.
+                .permitAll("/actuator/health", "/actuator/prometheus")
+                .hasRole("user", "/api1", "/user/**")
+                .hasRole("admin", "/api2")
+                .build();
+    }
+}
@@ -1,11 +1,19 @@
 package com.example.demo.config;
 
+import com.example.demo.audit.AuthAuditLog;
 import com.example.demo.error.JwtAccessDeniedHandler;
 import com.example.demo.error.JwtAuthenticationEntryPoint;
+import com.example.demo.filter.AccessTokenRenewal;
 import com.example.demo.filter.JwtFilter;
 import com.example.demo.filter.JwtVerificationFilter;
+import com.example.demo.filter.LoginRequestReader;
+import com.example.demo.service.PasswordHashingExecutor;
 import com.example.demo.service.RedisService;
+import com.example.demo.service.RevocationEpochs;
+import com.example.demo.util.AuthMetrics;
 import com.example.demo.util.JwtTokenProvider;
+import com.example.demo.util.TimedPasswordEncoder;
+import com.example.demo.util.VerifiedTokenCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
@@ -15,11 +23,14 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.header.writers.XXssProtectionHeaderWriter;
 
+import java.util.Map;
+
 @Slf4j
 @RequiredArgsConstructor
 @EnableWebSecurity
@@ -31,11 +42,18 @@ public class SecurityConfig  {
     private final RedisService redisService;
     private final JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
     private final JwtAccessDeniedHandler jwtAccessDeniedHandler;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final RevocationEpochs revocationEpochs;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final LoginRequestReader loginRequestReader;
+    private final AuthMetrics authMetrics;
+    private final AccessTokenRenewal accessTokenRenewal;
+    private final AuthAuditLog authAuditLog;
 
 
     //SecurityFilterChain을 Bean으로 등록하는 과정
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, RouteTable routeTable) throws Exception {
         http
                 //token을 사용하는 방식이기 때문에 csrf를 disable합니다.
                 .csrf(AbstractHttpConfigurer::disable)
@@ -43,12 +61,9 @@ public class SecurityConfig  {
                 //참고 코드 https://velog.io/@goat_hoon/Spring-Security%EB%A5%BC-%ED%99%9C%EC%9A%A9%ED%95%9C-JWT-%EB%8F%84%EC%9E%85%EA%B8%B0
                 .formLogin((formLogin) -> formLogin
                         .loginPage("/login").defaultSuccessUrl("/", true))
+                //경로별 인가 규칙은 routeTable 하나로 결정한다. (JwtVerificationFilter의 검증 생략 여부도 같은 테이블)
                 .authorizeHttpRequests((authorizeRequests) -> authorizeRequests
-                        .requestMatchers("/", "login/**","/members/sign-in", "/members/reissue","img/**", "/favicon.ico", "/error/**").permitAll()
-                        .requestMatchers("/api1").hasRole("user")
-                        .requestMatchers("/api2").hasRole("admin")
-                        .requestMatchers("/user/**").hasRole("user")
-                        .anyRequest().authenticated())
+                        .anyRequest().access(routeTable))
                 // 컨트롤러의 예외처리를 담당하는 exception handler랑은 다름
                 .exceptionHandling((exceptionHandling) -> exceptionHandling
                         .accessDeniedHandler(jwtAccessDeniedHandler)
@@ -61,15 +76,38 @@ public class SecurityConfig  {
                         cps -> cps.policyDirectives("script-src 'self'")
                         )
                 )
-                .addFilterBefore(new JwtFilter(authenticationManagerBuilder, redisService, jwtTokenProvider), UsernamePasswordAuthenticationFilter.class)
-                .addFilterAfter(new JwtVerificationFilter(jwtTokenProvider, redisService), JwtFilter.class)
+                .addFilterBefore(new JwtFilter(authenticationManagerBuilder, redisService, jwtTokenProvider, revocationEpochs, passwordHashingExecutor, loginRequestReader, authMetrics, authAuditLog), UsernamePasswordAuthenticationFilter.class)
+                .addFilterAfter(new JwtVerificationFilter(jwtTokenProvider, verifiedTokenCache, revocationEpochs, authMetrics, accessTokenRenewal, routeTable, authAuditLog), JwtFilter.class)
         ;
         return http.build();
     }
 
+    //경로별 인가 규칙(Routes). 세그먼트 트리로 컴파일되어서 규칙 수와 관계없이 요청 경로 길이만큼만 비교한다.
+    @Bean
+    public RouteTable routeTable() {
+        return Routes.table();
+    }
+
     //보안을 위해 패스워드 암호화시 사용
+    //{bcrypt}해시 형태로 저장한다. 접두사가 없는 예전 평문 비밀번호는 시작할 때 MemberRepository가 bcrypt 해시로 바꿔 두므로
+    //평문 비교(NoOp) fallback은 두지 않는다. 접두사 없는 값은 비교하지 않고 거절한다.
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        DelegatingPasswordEncoder passwordEncoder =
+                new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", new BCryptPasswordEncoder()));
+        //기본값은 예외(IllegalArgumentException)라서 로그인 실패가 아니라 500이 된다.
+        passwordEncoder.setDefaultPasswordEncoderForMatches(new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                throw new UnsupportedOperationException("접두사 없는 비밀번호는 만들지 않습니다.");
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return false;
+            }
+        });
+        //BCrypt 비교 시간만 auth.login.hash로 잰다.
+        return new TimedPasswordEncoder(passwordEncoder, authMetrics);
     }
 }
@@ -49,9 +49,13 @@ public class MemberController {
     @GetMapping("/reissue")
     public String reissue(HttpServletRequest request, HttpServletResponse response) {
         String refreshToken = jwtTokenProvider.resolveRefreshToken(request);
-        String newAccessToken = memberService.reissue(refreshToken);
-        jwtTokenProvider.accessTokenSetHeader(newAccessToken, response);
-        log.info("accessToken 재발급 완료~!");
+        JwtToken reissued = memberService.reissue(refreshToken);
+        //재발급에 실패하면 지금처럼 "Bearernull"을 내려준다.
+        jwtTokenProvider.accessTokenSetHeader(reissued == null ? null : reissued.getAccessToken(), response);
+        //refresh token rotation이 켜져 있을 때만 새 refresh token이 있다.
+        if(reissued != null && reissued.getRefreshToken() != null) {
+            jwtTokenProvider.refreshTokenSetHeader(reissued.getRefreshToken(), response);
+        }
         return "accessToken 재발급 완료~! Header를 확인해보라";
     }
 }
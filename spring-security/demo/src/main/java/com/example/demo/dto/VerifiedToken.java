@@ -0,0 +1,59 @@
+package com.example.demo.dto;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import com.example.demo.util.AuthorityRegistry;
+import com.example.demo.util.RoleSet;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+// 토큰을 한 번 검증한 결과. 서명/만료 검증 결과와 claims 중 필요한 값(subject, 권한, iat, auth_time, exp)만 담는다.
+// 불변 객체라서 필터, 캐시, 서비스 계층에서 그대로 공유해도 된다.
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class VerifiedToken {
+
+    public enum FailureReason {
+        NONE, EMPTY, EXPIRED, MALFORMED, BAD_SIGNATURE, UNSUPPORTED
+    }
+
+    //실패 결과는 담을 값이 없으니 이유별로 하나씩만 만들어 재사용
+    private static final Map<FailureReason, VerifiedToken> FAILURES = new EnumMap<>(FailureReason.class);
+
+    static {
+        for (FailureReason reason : FailureReason.values()) {
+            FAILURES.put(reason, new VerifiedToken(null, AuthorityRegistry.EMPTY, 0L, 0L, 0L, reason));
+        }
+    }
+
+    private final String subject;
+    //AuthorityRegistry에서 꺼낸 공유 RoleSet
+    private final RoleSet roleSet;
+    //발급 시각(epoch seconds), iat가 없으면 0
+    private final long issuedAt;
+    //처음 로그인한 시각(epoch seconds), auth_time이 없으면 0 (refresh token, 예전 access token)
+    private final long authTime;
+    //만료 시각(epoch millis), exp가 없으면 0
+    private final long expiresAt;
+    private final FailureReason failureReason;
+
+    public static VerifiedToken valid(String subject, RoleSet roleSet, long issuedAt, long authTime, long expiresAt) {
+        return new VerifiedToken(subject, roleSet, issuedAt, authTime, expiresAt, FailureReason.NONE);
+    }
+
+    public static VerifiedToken failed(FailureReason reason) {
+        return FAILURES.get(reason);
+    }
+
+    public List<GrantedAuthority> getAuthorities() {
+        return roleSet.getAuthorities();
+    }
+
+    public boolean isValid() {
+        return failureReason == FailureReason.NONE;
+    }
+}
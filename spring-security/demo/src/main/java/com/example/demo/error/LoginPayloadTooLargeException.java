@@ -0,0 +1,11 @@
+package com.example.demo.error;
+
+import org.springframework.security.core.AuthenticationException;
+
+// 로그인 요청 본문이 login.max-body-bytes를 넘을 때 던지는 예외. JwtFilter에서 413으로 바꾼다.
+public class LoginPayloadTooLargeException extends AuthenticationException {
+
+    public LoginPayloadTooLargeException(String msg) {
+        super(msg);
+    }
+}
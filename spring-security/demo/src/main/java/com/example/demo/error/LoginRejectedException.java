@@ -0,0 +1,17 @@
+package com.example.demo.error;
+
+import lombok.Getter;
+import org.springframework.security.core.AuthenticationException;
+
+// 비밀번호 검증 큐가 가득 찼거나 시간 안에 처리하지 못해서 로그인을 바로 거절할 때 던지는 예외
+// JwtFilter에서 503 + Retry-After 응답으로 바꾼다.
+@Getter
+public class LoginRejectedException extends AuthenticationException {
+
+    private final long retryAfterSeconds;
+
+    public LoginRejectedException(String msg, long retryAfterSeconds) {
+        super(msg);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.demo.error;
+
+// Redis 호출이 실패했거나 circuit breaker가 열려 있어서 호출하지 않았을 때 던지는 예외
+// 호출하는 쪽(MemberServiceImpl, RevocationEpochs)에서 fail-open / fail-closed 정책을 정한다.
+public class RedisUnavailableException extends RuntimeException {
+
+    public RedisUnavailableException(String message) {
+        super(message);
+    }
+
+    public RedisUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
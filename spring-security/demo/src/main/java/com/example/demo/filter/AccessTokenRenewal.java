@@ -0,0 +1,120 @@
+package com.example.demo.filter;
+
+import com.example.demo.User.MemberRepository;
+import com.example.demo.service.RevocationEpochs;
+import com.example.demo.util.JwtAuthentication;
+import com.example.demo.util.JwtTokenProvider;
+import com.example.demo.util.RoleSet;
+import com.example.demo.util.TokenDigest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 만료가 가까운 access token을 요청 처리 중에 새로 발급한다. (sliding renewal, 기본은 꺼져 있음)
+ * 클라이언트는 응답의 Authorization 헤더에 새 토큰이 있으면 바꿔 쓰면 되고, 401 -> /members/reissue -> 재시도를 하지 않아도 된다.
+ *
+ * 남은 시간이 window-ms 이하가 되면 갱신하는데, 토큰마다 0 ~ jitter-ms 만큼 갱신 시작을 늦춘다.
+ * 같은 시각에 로그인한 클라이언트(배포 직후 등)도 갱신 시점이 흩어져서 한꺼번에 몰리지 않는다.
+ * 늦추는 양은 토큰 값으로 정해지므로 같은 토큰은 항상 같은 시점부터 갱신된다.
+ *
+ * 갱신으로 로그인이 끝없이 늘어나지 않도록
+ * - 새 토큰은 처음 로그인한 시각(auth_time)을 그대로 물려받고, auth_time + refresh token 수명이 지나면 갱신하지 않는다. (다시 로그인 또는 재발급)
+ * - 권한은 지금 토큰이 아니라 MemberRepository에서 다시 읽는다. 회원이 없어졌으면 갱신하지 않는다.
+ * - 토큰 하나로는 한 번만 발급한다. 같은 토큰으로 다시 들어오면 (응답을 못 받은 재시도 등) 처음 발급한 토큰을 다시 내려준다.
+ */
+@Component
+public class AccessTokenRenewal {
+
+    private final JwtTokenProvider jwtTokenProvider;
+    private final RevocationEpochs revocationEpochs;
+    private final MemberRepository memberRepository;
+    private final boolean enabled;
+    private final long windowMillis;
+    private final long jitterMillis;
+    private final int maxSize;
+    //원래 토큰 다이제스트 -> 그 토큰으로 발급한 새 토큰. 원래 토큰이 만료되면 필요 없다.
+    private final Map<String, Renewed> renewed = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    public AccessTokenRenewal(JwtTokenProvider jwtTokenProvider,
+                              RevocationEpochs revocationEpochs,
+                              MemberRepository memberRepository,
+                              @Value("${jwt.renewal.enabled:false}") boolean enabled,
+                              @Value("${jwt.renewal.window-ms:60000}") long windowMillis,
+                              @Value("${jwt.renewal.jitter-ms:30000}") long jitterMillis,
+                              @Value("${jwt.renewal.max-size:10000}") int maxSize) {
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.revocationEpochs = revocationEpochs;
+        this.memberRepository = memberRepository;
+        this.enabled = enabled;
+        this.windowMillis = windowMillis;
+        //늦춘 시작 시점이 만료 뒤로 넘어가지 않도록
+        this.jitterMillis = Math.max(0, Math.min(jitterMillis, windowMillis));
+        this.maxSize = maxSize;
+    }
+
+    // 갱신할 때가 되었으면 새 access token, 아니면 null
+    public String renew(JwtAuthentication authentication, String accessToken, long now) {
+        if (!enabled) return null;
+        long expiresAt = authentication.getExpiresAt();
+        //exp가 없는 토큰은 갱신하지 않는다.
+        if (expiresAt <= 0) return null;
+        long remaining = expiresAt - now;
+        if (remaining <= 0 || remaining > windowMillis - jitter(accessToken)) {
+            return null;
+        }
+        //auth_time이 없는 토큰(이전 버전이 발급)은 언제 로그인했는지 몰라서 갱신하지 않는다.
+        long authTime = authentication.getAuthTime();
+        if (authTime <= 0 || now >= authTime * 1000 + jwtTokenProvider.getRefreshTokenExpTime()) {
+            return null;
+        }
+        String key = TokenDigest.of(accessToken);
+        Renewed previous = renewed.get(key);
+        if (previous != null) return previous.token();
+
+        String username = authentication.getName();
+        RoleSet roleSet = memberRepository.findRoleSetByUsername(username);
+        if (roleSet == null) return null;
+        //iat는 로그아웃 epoch 이후로 맞춘다. 이때 Redis의 epoch를 읽어오므로 다른 노드에서 로그아웃했는지 한 번 더 확인한다.
+        long issuedAt = revocationEpochs.issuedAt(username);
+        if (revocationEpochs.isRevoked(authentication)) return null;
+        if (renewed.size() >= maxSize) {
+            evict(now);
+            //자리가 없으면 갱신하지 않는다. 지금 토큰은 만료 전이라 그대로 쓰거나 재발급하면 된다.
+            if (renewed.size() >= maxSize) return null;
+        }
+        String token = jwtTokenProvider.createAccessToken(username, roleSet, issuedAt, authTime);
+        //동시에 같은 토큰으로 들어왔으면 먼저 넣은 쪽 토큰을 내려준다. 이쪽에서 만든 토큰은 밖으로 나가지 않는다.
+        previous = renewed.putIfAbsent(key, new Renewed(token, expiresAt));
+        return previous != null ? previous.token() : token;
+    }
+
+    // 원래 토큰이 만료된 항목을 지운다. 다른 쓰레드가 정리중이면 기다리지 않는다.
+    private void evict(long now) {
+        if (!evictionLock.tryLock()) return;
+        try {
+            renewed.values().removeIf(entry -> now >= entry.expiresAt());
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    // 토큰별로 고정된 0 ~ jitterMillis 값. String.hashCode는 String에 캐시되어 있다.
+    private long jitter(String token) {
+        if (jitterMillis == 0) return 0;
+        int hash = token.hashCode();
+        //hashCode 하위 비트 편향을 섞는다.
+        hash ^= hash >>> 16;
+        hash *= 0x45d9f3b;
+        hash ^= hash >>> 16;
+        return Integer.toUnsignedLong(hash) % (jitterMillis + 1);
+    }
+
+    // expiresAt : 원래 토큰의 만료 시각(epoch millis)
+    private record Renewed(String token, long expiresAt) {
+    }
+}
@@ -1,10 +1,19 @@
 package com.example.demo.filter;
 
+import com.example.demo.audit.AuditEvent.Type;
+import com.example.demo.audit.AuthAuditLog;
 import com.example.demo.dto.JwtToken;
 import com.example.demo.dto.LoginDto;
+import com.example.demo.error.LoginPayloadTooLargeException;
+import com.example.demo.error.LoginRejectedException;
+import com.example.demo.service.PasswordHashingExecutor;
 import com.example.demo.service.RedisService;
+import com.example.demo.service.RevocationEpochs;
+import com.example.demo.util.AuthMetrics;
+import com.example.demo.util.AuthMetrics.LoginOutcome;
 import com.example.demo.util.JwtTokenProvider;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.demo.util.LogSampler;
+import com.example.demo.util.RedisKeys;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.ServletRequest;
@@ -14,7 +23,9 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.AuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.core.Authentication;
@@ -36,6 +47,18 @@ public class JwtFilter extends UsernamePasswordAuthenticationFilter {
     private final AuthenticationManagerBuilder authenticationManagerBuilder;
     private final RedisService redisService;
     private final JwtTokenProvider jwtTokenProvider;
+    private final RevocationEpochs revocationEpochs;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final LoginRequestReader loginRequestReader;
+    private final AuthMetrics authMetrics;
+    private final AuthAuditLog authAuditLog;
+
+    private static final LogSampler DEBUG = LogSampler.debug(log);
+
+    //로그인 전체 시간 측정용 시작 시각(request attribute)
+    private static final String LOGIN_STARTED_AT = JwtFilter.class.getName() + ".LOGIN_STARTED_AT";
+    //실패한 로그인의 감사 이벤트에 남길 username(request attribute)
+    private static final String LOGIN_USERNAME = JwtFilter.class.getName() + ".LOGIN_USERNAME";
 
     //토큰 헤더에 입력시 설정한 key 값
     public static final String AUTHORIZATION_HEADER = "Authorization";
@@ -49,15 +72,17 @@ public class JwtFilter extends UsernamePasswordAuthenticationFilter {
     @SneakyThrows
     @Override
     public Authentication attemptAuthentication(HttpServletRequest request, HttpServletResponse response) throws AuthenticationException {
-        log.info("지금 attemptAuthentication 실행중");
-//        ServletInputStream을 LoginDto 객체로 역직렬화
-        ObjectMapper objectMapper = new ObjectMapper();
-        LoginDto loginDto = objectMapper.readValue(request.getInputStream(), LoginDto.class);
+        if (DEBUG.sample()) log.debug("지금 attemptAuthentication 실행중");
+        request.setAttribute(LOGIN_STARTED_AT, System.nanoTime());
+//        JSON이면 ServletInputStream을 LoginDto 객체로 한 번에 역직렬화, 폼이면 파라미터에서 읽는다.
+        LoginDto loginDto = loginRequestReader.read(request);
+        request.setAttribute(LOGIN_USERNAME, loginDto.getUsername());
         UsernamePasswordAuthenticationToken authenticationToken =
-                new UsernamePasswordAuthenticationToken(request.getParameter("username"), request.getParameter("password"));
+                new UsernamePasswordAuthenticationToken(loginDto.getUsername(), loginDto.getPassword());
 // login 메소드의 Authentication authentication = authenticationManagerBuilder.getObject().authenticate(authenticationToken); '
 // 인증 부분에서 암호화된 비밀번호와 사용자 입력 비밀번호의 비교가 가능하게 됩니다.
-        return authenticationManagerBuilder.getObject().authenticate(authenticationToken);
+// BCrypt 비교는 요청 쓰레드가 아니라 크기가 정해진 전용 풀에서 실행한다. 풀이 가득 차면 바로 거절(503)
+        return passwordHashingExecutor.authenticate(authenticationManagerBuilder.getObject(), authenticationToken);
     }
 
     /*
@@ -67,14 +92,51 @@ public class JwtFilter extends UsernamePasswordAuthenticationFilter {
     */
     @Override
     protected void successfulAuthentication(HttpServletRequest request, HttpServletResponse response, FilterChain chain, Authentication authentication) throws IOException, ServletException {
-        log.info("지금 successfulAuthentication 실행중");
         UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        JwtToken jwtToken = jwtTokenProvider.createToken(userDetails);
+        //iat는 이 사용자의 마지막 로그아웃 epoch 이후로 맞춘다.
+        JwtToken jwtToken = jwtTokenProvider.createToken(userDetails, revocationEpochs.issuedAt(userDetails.getUsername()));
         jwtTokenProvider.accessTokenSetHeader(jwtToken.getAccessToken(), response);
         jwtTokenProvider.refreshTokenSetHeader(jwtToken.getRefreshToken(), response);
 
-        long refreshTokenExpTime = jwtToken.getAccessTokenExpiresIn();
-        redisService.setValues(authentication.getName(), jwtToken.getRefreshToken(), Duration.ofMillis(refreshTokenExpTime));
+        //refresh token 저장은 응답을 기다리게 할 필요가 없으니 write-behind로 보낸다.
+        long refreshTokenExpTime = jwtTokenProvider.getRefreshTokenExpTime();
+        redisService.setValuesAsync(RedisKeys.refreshToken(authentication.getName()), jwtToken.getRefreshToken(), Duration.ofMillis(refreshTokenExpTime));
+        recordLogin(request, LoginOutcome.SUCCESS);
+        authAuditLog.success(Type.LOGIN, authentication.getName());
+    }
+
+    // 비밀번호 검증 풀이 가득 차서 거절된 로그인은 401이 아니라 503 + Retry-After로 응답
+    // 본문이 너무 큰 로그인 요청은 413
+    @Override
+    protected void unsuccessfulAuthentication(HttpServletRequest request, HttpServletResponse response, AuthenticationException failed) throws IOException, ServletException {
+        LoginOutcome outcome = loginOutcome(failed);
+        recordLogin(request, outcome);
+        authAuditLog.failure(Type.LOGIN, (String) request.getAttribute(LOGIN_USERNAME), outcome.name());
+        if (failed instanceof LoginRejectedException rejected) {
+            SecurityContextHolder.clearContext();
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(rejected.getRetryAfterSeconds()));
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            return;
+        }
+        if (failed instanceof LoginPayloadTooLargeException) {
+            SecurityContextHolder.clearContext();
+            response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+            return;
+        }
+        super.unsuccessfulAuthentication(request, response, failed);
+    }
+
+    private void recordLogin(HttpServletRequest request, LoginOutcome outcome) {
+        if (request.getAttribute(LOGIN_STARTED_AT) instanceof Long startedAt) {
+            authMetrics.login(outcome, System.nanoTime() - startedAt);
+        }
+    }
+
+    private static LoginOutcome loginOutcome(AuthenticationException failed) {
+        if (failed instanceof LoginRejectedException) return LoginOutcome.REJECTED;
+        if (failed instanceof LoginPayloadTooLargeException) return LoginOutcome.TOO_LARGE;
+        if (failed instanceof AuthenticationServiceException) return LoginOutcome.ERROR;
+        return LoginOutcome.BAD_CREDENTIALS;
     }
 
 //UsernamePasswordAuthenticationFilter 사용안했을 때 코드
@@ -1,7 +1,17 @@
 package com.example.demo.filter;
 
-import com.example.demo.service.RedisService;
+import com.example.demo.audit.AuditEvent.Type;
+import com.example.demo.audit.AuthAuditLog;
+import com.example.demo.config.RouteTable;
+import com.example.demo.dto.VerifiedToken;
+import com.example.demo.error.RedisUnavailableException;
+import com.example.demo.service.RevocationEpochs;
+import com.example.demo.util.AuthMetrics;
+import com.example.demo.util.AuthMetrics.VerifyOutcome;
+import com.example.demo.util.JwtAuthentication;
 import com.example.demo.util.JwtTokenProvider;
+import com.example.demo.util.LogSampler;
+import com.example.demo.util.VerifiedTokenCache;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -14,7 +24,6 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.List;
 
 /**
  * Jwt를 검증 후 성공하면 SecurityContext에 저장하는 필터. OncePerRequestFilter를 상속받고 있다.
@@ -26,46 +35,110 @@ import java.util.List;
 @RequiredArgsConstructor
 public class JwtVerificationFilter extends OncePerRequestFilter {
 
-    private static final List<String> EXCLUDE_URL =
-            List.of("/"
-                , "/h2"
-                , "/members/sign-in"
-                , "/member/reissue"
-                , "/favicon.ico");
+    //요청마다 지나가는 경로라서 debug 로그는 일부만 남긴다.
+    private static final LogSampler DEBUG = LogSampler.debug(log);
 
     //인증에서
     private final JwtTokenProvider jwtTokenProvider;
-    private final RedisService redisService;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final RevocationEpochs revocationEpochs;
+    private final AuthMetrics authMetrics;
+    private final AccessTokenRenewal accessTokenRenewal;
+    //검증을 생략할 경로(publicEndpoint)는 인가 규칙과 같은 테이블에서 찾는다.
+    private final RouteTable routeTable;
+    //거절된 토큰은 감사 이벤트로 남긴다.
+    private final AuthAuditLog authAuditLog;
 
     // JWT 인증 정보를 현재 쓰레드의 SecurityContext에 저장(가입/로그인/재발급 Request 제외)
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
-        log.info("지금 JwtVerificationFilter 실행중 {}", request.getRequestURI());
+        if(DEBUG.sample()) log.debug("지금 JwtVerificationFilter 실행중 {}", request.getRequestURI());
+        long start = System.nanoTime();
         String accessToken = jwtTokenProvider.resolveAccessToken(request);
-        if(StringUtils.hasText(accessToken) && doNotLogout(accessToken) &&
-        jwtTokenProvider.validateToken(accessToken)) {
-            setAuthenticationToContext(accessToken);
+        Authentication authentication = null;
+        VerifyOutcome outcome;
+        String username = null;
+        if(!StringUtils.hasText(accessToken)) {
+            outcome = VerifyOutcome.MISSING;
+        } else if((authentication = verifiedTokenCache.get(accessToken)) != null) {
+            outcome = VerifyOutcome.CACHED;
         } else {
-            log.info("JwtVerificationFilter 실패");
+            VerifiedToken verifiedToken = parse(accessToken);
+            outcome = AuthMetrics.outcomeOf(verifiedToken);
+            if(outcome == VerifyOutcome.VERIFIED) {
+                //이전 형식(bl:)으로 로그아웃된 토큰이나 확인하지 못한 토큰은 캐시하지 않고 거절한다. 확인 기간이 끝나면 Redis를 부르지 않는다.
+                outcome = checkLegacyDenylist(accessToken);
+                if(outcome == VerifyOutcome.VERIFIED) {
+                    authentication = authenticate(verifiedToken, accessToken);
+                } else {
+                    username = verifiedToken.getSubject();
+                }
+            }
+        }
+        //로그아웃 확인은 iat와 사용자별 epoch 비교(로컬 map 조회)라서 캐시된 토큰도 매번 확인한다.
+        if(authentication != null && revocationEpochs.isRevoked(authentication)) {
+            outcome = VerifyOutcome.REVOKED;
+            username = authentication.getName();
+            authentication = null;
+        }
+        authMetrics.verify(outcome, System.nanoTime() - start);
+        if(authentication != null) {
+            setAuthenticationToContext(authentication);
+            renew(authentication, accessToken, response);
+        } else {
+            if(DEBUG.sample()) log.debug("JwtVerificationFilter 실패 : {}", outcome);
+            //토큰이 없는 요청은 거절이 아니다. (인가에서 401)
+            if(outcome != VerifyOutcome.MISSING) {
+                authAuditLog.failure(Type.TOKEN_REJECTED, username, outcome.name());
+            }
         }
         filterChain.doFilter(request, response);
     }
 
-    private boolean doNotLogout(String accessToken) {
-        String isLogout = redisService.getValues(accessToken);
-        log.info("doNotLogout 확인 : {}", isLogout);
-        return isLogout.equals("false");
-    }
-
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) throws ServletException {
-        boolean result = EXCLUDE_URL.stream().anyMatch(exclude -> exclude.equalsIgnoreCase(request.getServletPath()));
-        return result;
+        //조회 결과는 요청에 저장되어 인가(AuthorizationFilter)에서 다시 찾지 않는다.
+        return routeTable.match(request).skipVerification();
+    }
+
+    // 만료가 가까우면 새 access token을 응답 헤더로 내려준다. 응답 본문을 쓰기 전이라 헤더를 바꿀 수 있다.
+    private void renew(Authentication authentication, String accessToken, HttpServletResponse response) {
+        if(authentication instanceof JwtAuthentication jwtAuthentication) {
+            String renewed = accessTokenRenewal.renew(jwtAuthentication, accessToken, System.currentTimeMillis());
+            if(renewed != null) {
+                jwtTokenProvider.accessTokenSetHeader(renewed, response);
+                authMetrics.renewal();
+            }
+        }
+    }
+
+    // 캐시에 없는 토큰만 서명 검증 + claims 파싱(한 번)을 한다.
+    private VerifiedToken parse(String accessToken) {
+        long start = System.nanoTime();
+        VerifiedToken verifiedToken = jwtTokenProvider.verify(accessToken);
+        authMetrics.parse(System.nanoTime() - start);
+        return verifiedToken;
+    }
+
+    // Redis를 못 쓰면 로그아웃 여부를 모르므로 거절한다. (fail-closed) 캐시하지 않았으니 다음 요청에서 다시 확인한다.
+    private VerifyOutcome checkLegacyDenylist(String accessToken) {
+        try {
+            return revocationEpochs.isLegacyRevoked(accessToken) ? VerifyOutcome.REVOKED : VerifyOutcome.VERIFIED;
+        } catch (RedisUnavailableException e) {
+            if(DEBUG.sample()) log.debug("이전 형식 로그아웃 key 확인 실패 : {}", e.getMessage());
+            return VerifyOutcome.UNAVAILABLE;
+        }
+    }
+
+    // 검증된 토큰으로 Authentication을 만들고 exp까지 캐시해 둔다.
+    private Authentication authenticate(VerifiedToken verifiedToken, String accessToken) {
+        Authentication authentication = jwtTokenProvider.getAuthentication(verifiedToken, accessToken);
+        verifiedTokenCache.put(accessToken, authentication, verifiedToken.getExpiresAt());
+        return authentication;
     }
 
-    private void setAuthenticationToContext(String accessToken) {
-        Authentication authentication = jwtTokenProvider.getAuthentication(accessToken);
+    private void setAuthenticationToContext(Authentication authentication) {
         SecurityContextHolder.getContext().setAuthentication(authentication);
-        log.info("# Token verification success!");
+        if(DEBUG.sample()) log.debug("# Token verification success!");
     }
 }
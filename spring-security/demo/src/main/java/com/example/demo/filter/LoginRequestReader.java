@@ -0,0 +1,94 @@
+package com.example.demo.filter;
+
+import com.example.demo.dto.LoginDto;
+import com.example.demo.error.LoginPayloadTooLargeException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 로그인 요청을 LoginDto로 읽는다.
+ * JSON 본문은 미리 만들어둔 ObjectReader로 스트림에서 바로 한 번만 읽고,
+ * 폼(application/x-www-form-urlencoded)이나 쿼리 파라미터는 컨테이너가 파싱한 파라미터를 그대로 쓴다.
+ * 본문이 max-body-bytes를 넘으면 버퍼에 담기 전에 거절한다.
+ */
+@Component
+public class LoginRequestReader {
+
+    //ObjectReader는 불변이고 thread-safe 하므로 요청마다 ObjectMapper를 만들 필요가 없다.
+    private static final ObjectReader LOGIN_READER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+            .readerFor(LoginDto.class);
+
+    private final int maxBodyBytes;
+
+    public LoginRequestReader(@Value("${login.max-body-bytes:4096}") int maxBodyBytes) {
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    public LoginDto read(HttpServletRequest request) throws IOException {
+        if (request.getContentLengthLong() > maxBodyBytes) {
+            throw new LoginPayloadTooLargeException("로그인 요청이 너무 큽니다.");
+        }
+        String contentType = request.getContentType();
+        if (contentType == null || !contentType.toLowerCase().contains("json")) {
+            LoginDto loginDto = new LoginDto();
+            loginDto.setUsername(request.getParameter("username"));
+            loginDto.setPassword(request.getParameter("password"));
+            return loginDto;
+        }
+        //Content-Length 없이(chunked) 들어오는 본문도 읽는 도중에 크기를 확인한다.
+        try (InputStream body = new LimitedInputStream(request.getInputStream(), maxBodyBytes)) {
+            LoginDto loginDto = LOGIN_READER.readValue(body);
+            if (loginDto == null) {
+                throw new AuthenticationServiceException("로그인 요청 본문이 비어 있습니다.");
+            }
+            return loginDto;
+        } catch (BodyTooLargeException e) {
+            throw new LoginPayloadTooLargeException("로그인 요청이 너무 큽니다.");
+        } catch (com.fasterxml.jackson.core.JacksonException e) {
+            throw new AuthenticationServiceException("로그인 요청 형식이 잘못되었습니다.", e);
+        }
+    }
+
+    private static final class BodyTooLargeException extends IOException {
+    }
+
+    // limit 바이트를 넘게 읽으려고 하면 BodyTooLargeException
+    private static final class LimitedInputStream extends FilterInputStream {
+        private final int limit;
+        private int count;
+
+        LimitedInputStream(InputStream in, int limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count(1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) count(n);
+            return n;
+        }
+
+        private void count(int n) throws BodyTooLargeException {
+            count += n;
+            if (count > limit) throw new BodyTooLargeException();
+        }
+    }
+}
@@ -2,37 +2,60 @@ package com.example.demo.service;
 
 import com.example.demo.User.Member;
 import com.example.demo.User.MemberRepository;
+import com.example.demo.util.LogSampler;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
+
+    //로그인마다 실행되므로 debug 로그는 일부만 남긴다.
+    private static final LogSampler DEBUG = LogSampler.debug(log);
 
     private final MemberRepository memberRepository;
-    private final PasswordEncoder passwordEncoder;
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        log.info("loadUserByUsername 실행");
+        if (DEBUG.sample()) log.debug("loadUserByUsername 실행");
         return memberRepository.findByUsername(username)
                 //.map() 메서드는 Optional에 포함된 값을 변환하는 함수를 적용합니다.
                 .map(this::createUserDetails)
                 .orElseThrow(() -> new UsernameNotFoundException("해당하는 회원을 찾을 수 없습니다."));
     }
 
+    /*
+    * 로그인 성공 후 저장된 해시가 현재 설정과 다르면(BCrypt strength 변경 등) DaoAuthenticationProvider가 호출한다.
+    * 접두사 없는 예전 평문 비밀번호는 시작할 때 MemberRepository가 한꺼번에 바꾸므로 여기로 오지 않는다.
+    * 저장된 Member는 다른 요청이 읽고 있을 수 있으므로 고치지 않고 복사본을 저장한다.
+    */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        memberRepository.findByUsername(user.getUsername()).ifPresent(member -> {
+            memberRepository.save(member.toBuilder()
+                    .password(newPassword)
+                    .roles(new ArrayList<>(member.getRoles()))
+                    .build());
+            log.info("비밀번호 저장 방식 변경 완료 : {}", member.getUsername());
+        });
+        return User.withUserDetails(user).password(newPassword).build();
+    }
+
     //해당하는 USER의 데이터가 존재한다면 UserDetails 객체로 만들어서 return
+    //비밀번호는 가입할 때 이미 해시되어 저장되어 있으므로 그대로 넘긴다. (여기서 다시 encode 하면 로그인마다 BCrypt를 두 번 돌게 된다)
     private UserDetails createUserDetails(Member member) {
         return User.builder()
                 .username(member.getUsername())
-                .password(passwordEncoder.encode(member.getPassword()))
+                .password(member.getPassword())
                 .roles(member.getRoles().toArray(new String[0]))
                 .build();
     }
@@ -6,6 +6,6 @@ import jakarta.servlet.http.HttpServletRequest;
 public interface MemberService {
 
 //    public JwtToken signIn(String username, String password);
-    public String reissue(String encryptedRefreshToken);
+    public JwtToken reissue(String encryptedRefreshToken);
     public  void logout(String refreshToken, String accessToken);
 }
@@ -1,13 +1,23 @@
 package com.example.demo.service;
 
-import com.example.demo.User.Member;
 import com.example.demo.User.MemberRepository;
+import com.example.demo.audit.AuditEvent.Type;
+import com.example.demo.audit.AuthAuditLog;
 import com.example.demo.dto.JwtToken;
+import com.example.demo.dto.VerifiedToken;
+import com.example.demo.error.RedisUnavailableException;
+import com.example.demo.service.RedisService.SwapResult;
+import com.example.demo.util.AuthMetrics;
+import com.example.demo.util.AuthMetrics.Outcome;
 import com.example.demo.util.JwtTokenProvider;
-import io.jsonwebtoken.Claims;
+import com.example.demo.util.LogSampler;
+import com.example.demo.util.RedisKeys;
+import com.example.demo.util.RoleSet;
+import com.example.demo.util.VerifiedTokenCache;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
@@ -17,14 +27,25 @@ import org.springframework.stereotype.Service;
 
 import java.time.Duration;
 
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class MemberServiceImpl implements MemberService{
+    private static final LogSampler DEBUG = LogSampler.debug(log);
+
     private final MemberRepository memberRepotory;
     private final JwtTokenProvider jwtTokenProvider;
     private final AuthenticationManagerBuilder authenticationManagerBuilder;
     private final RedisService redisService;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final RevocationEpochs revocationEpochs;
+    private final AuthMetrics authMetrics;
+    private final AuthAuditLog authAuditLog;
+
+    //재발급할 때 refresh token도 새로 발급해서 교체할지 (이전 refresh token은 바로 못 쓰게 된다)
+    @Value("${jwt.refresh-token-rotation:false}")
+    private boolean rotateRefreshToken;
 
 // UsernamePasswordAuthenticationFilter 안 쓸 때 쓰던 메소드
 
@@ -45,52 +66,120 @@ public class MemberServiceImpl implements MemberService{
 //    }
 
     @Override
-    public String reissue(String refreshToken) {
+    public JwtToken reissue(String refreshToken) {
+        long start = System.nanoTime();
+        JwtToken reissued = null;
+        try {
+            reissued = reissueTokens(refreshToken);
+            return reissued;
+        } finally {
+            authMetrics.reissue(reissued != null ? Outcome.SUCCESS : Outcome.FAILURE, System.nanoTime() - start);
+        }
+    }
+
+    /*
+    * access token만 새로 서명한다. 권한은 MemberRepository의 username -> RoleSet projection에서 꺼낸다.
+    * jwt.refresh-token-rotation이 켜져 있으면 refresh token도 새로 만들어서 저장된 값과 비교 + 교체를 Redis 스크립트 한 번으로 한다.
+    * 실패하면 null
+    * */
+    private JwtToken reissueTokens(String refreshToken) {
         //refreshToken이 비어있는지 확인
         verifiedRefreshToken(refreshToken);
-        Claims claims = jwtTokenProvider.parseClaims(refreshToken);
-        String name = claims.getSubject();
-        String redisRefreshToken = redisService.getValues(name);
-
-        if(redisService.checkExistsValue(redisRefreshToken) && refreshToken.equals(redisRefreshToken)){
-            Member findMember = this.findMemberByName(name);
-            JwtToken jwtToken = jwtTokenProvider.createToken(findMember);
-            String newAccessToken = jwtToken.getAccessToken();
-            return newAccessToken;
-        } else {
-            log.info("refresh token 토큰 일치하지 않음");
+        VerifiedToken verifiedToken = jwtTokenProvider.verify(refreshToken);
+        if(!verifiedToken.isValid()) {
+            authAuditLog.failure(Type.REISSUE, null, verifiedToken.getFailureReason().name());
+            return null;
+        }
+        String name = verifiedToken.getSubject();
+        //로그아웃 이전에 발급된 refresh token
+        if(revocationEpochs.isRevoked(name, verifiedToken.getIssuedAt())) {
+            authAuditLog.failure(Type.REISSUE, name, "REVOKED");
+            return null;
+        }
+        RoleSet roleSet = memberRepotory.findRoleSetByUsername(name);
+        if(roleSet == null) {
+            authAuditLog.failure(Type.REISSUE, name, "UNKNOWN_MEMBER");
+            return null;
+        }
+        long issuedAt = revocationEpochs.issuedAt(name);
+        String newRefreshToken = rotateRefreshToken ? jwtTokenProvider.createRefreshToken(name, issuedAt) : null;
+        try {
+            if(!matchRefreshToken(name, refreshToken, newRefreshToken)) {
+                authAuditLog.failure(Type.REISSUE, name, "MISMATCH");
+                return null;
+            }
+        } catch (RedisUnavailableException e) {
+            //저장된 refresh token과 비교할 수 없으면 재발급하지 않는다. (fail-closed)
+            log.warn("redis 사용 불가, refresh token 재발급 거부 : {}", e.getMessage());
+            authAuditLog.failure(Type.REISSUE, name, "REDIS_UNAVAILABLE");
             return null;
         }
+        authAuditLog.success(Type.REISSUE, name);
+        return JwtToken.builder()
+                .grantType("Bearer")
+                .accessToken(jwtTokenProvider.createAccessToken(name, roleSet, issuedAt, verifiedToken.getIssuedAt()))
+                .refreshToken(newRefreshToken)
+                .build();
+    }
+
+    // 저장된 refresh token과 같은지 확인. newRefreshToken이 있으면 같을 때만 그 값으로 바꾼다.
+    private boolean matchRefreshToken(String username, String refreshToken, String newRefreshToken) {
+        String key = RedisKeys.refreshToken(username);
+        if(newRefreshToken == null) {
+            String redisRefreshToken = redisService.getValues(key, username);
+            return redisService.checkExistsValue(redisRefreshToken) && refreshToken.equals(redisRefreshToken);
+        }
+        SwapResult result = redisService.compareAndSet(key, username, refreshToken, newRefreshToken,
+                Duration.ofMillis(jwtTokenProvider.getRefreshTokenExpTime()));
+        if(result == SwapResult.MISMATCH) {
+            //이미 교체된 refresh token을 다시 쓴 경우
+            log.warn("이미 교체된 refresh token 재사용 : {}", username);
+        }
+        return result == SwapResult.SWAPPED;
     }
 
     @Override
     public void logout(String refreshToken, String accessToken) {
-        verifiedRefreshToken(refreshToken);
-        Claims claims = jwtTokenProvider.parseClaims(refreshToken);
-        String username = claims.getSubject();
-        String redisRefreshToken = redisService.getValues(username);
-        if(redisService.checkExistsValue(redisRefreshToken)){
-            redisService.deleteValues(username);
+        long start = System.nanoTime();
+        boolean loggedOut = false;
+        try {
+            loggedOut = logoutTokens(refreshToken, accessToken);
+        } finally {
+            authMetrics.logout(loggedOut ? Outcome.SUCCESS : Outcome.FAILURE, System.nanoTime() - start);
+        }
+    }
 
-            //로그아웃 시 Access Token Redis 저장( key = accessToken / value = " logout"
-            long accessTokenExpIn = jwtTokenProvider.getAccessTokenExpTime();
-            redisService.setValues(accessToken, "logout", Duration.ofMillis(accessTokenExpIn));
+    // refresh token 검증에 실패하면 false
+    private boolean logoutTokens(String refreshToken, String accessToken) {
+        verifiedRefreshToken(refreshToken);
+        VerifiedToken verifiedToken = jwtTokenProvider.verify(refreshToken);
+        if(!verifiedToken.isValid()) {
+            authAuditLog.failure(Type.LOGOUT, null, verifiedToken.getFailureReason().name());
+            return false;
+        }
+        String username = verifiedToken.getSubject();
+        try {
+            String redisRefreshToken = redisService.getValues(RedisKeys.refreshToken(username), username);
+            if(!redisService.checkExistsValue(redisRefreshToken)) {
+                authAuditLog.failure(Type.LOGOUT, username, "MISSING");
+                return false;
+            }
+            redisService.deleteValues(RedisKeys.refreshToken(username));
+        } catch (RedisUnavailableException e) {
+            //Redis가 죽어 있어도 이 노드에서는 access token을 바로 막는다.
+            log.warn("redis 사용 불가, 로컬 로그아웃만 반영 : {}", e.getMessage());
         }
+        //토큰별 denylist 대신 사용자별 epoch 하나만 갱신한다. 이 시각 이전에 발급된 이 사용자의 토큰은 모든 노드에서 거절된다.
+        revocationEpochs.revokeAll(username);
+        //이 노드에 캐시된 검증 결과도 제거 (캐시된 토큰도 필터에서 epoch를 확인하지만 메모리를 바로 비운다)
+        verifiedTokenCache.invalidate(accessToken);
+        authAuditLog.success(Type.LOGOUT, username);
+        return true;
     }
 
     private void verifiedRefreshToken(String refreshToken) {
         if(refreshToken == null) {
-            log.info("encryptedRefreshToken이 없습니다.");
+            if(DEBUG.sample()) log.debug("encryptedRefreshToken이 없습니다.");
         }
     }
-
-    private Member findMemberByName(String name) {
-        return memberRepotory.findByUsername(name).orElseThrow(() ->{
-            try {
-                throw new Exception();
-            } catch (Exception e) {
-                throw new RuntimeException(e);
-            }
-        });
-    }
 }
@@ -0,0 +1,121 @@
+package com.example.demo.service;
+
+import com.example.demo.error.LoginRejectedException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 로그인 비밀번호 검증(BCrypt)을 전용 쓰레드 풀에서 실행한다.
+ * 쓰레드 수와 대기 큐 크기가 정해져 있어서, 로그인이 몰려도 BCrypt에 쓰이는 CPU는 threads 개를 넘지 않는다.
+ * 큐가 가득 차면 기다리지 않고 LoginRejectedException(503 + Retry-After)으로 바로 거절한다.
+ *
+ * virtual 프로필에서도 이 풀은 플랫폼 쓰레드로 둔다. BCrypt는 CPU만 쓰는 작업이라 가상 쓰레드로 얻을 것이 없고,
+ * 요청 쓰레드 수에 제한이 없어지는 만큼 여기서 CPU 사용량을 제한해야 한다. 요청(가상) 쓰레드는 Future를 기다리는 동안 carrier를 놓아준다.
+ */
+@Slf4j
+@Component
+public class PasswordHashingExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+    private final long retryAfterSeconds;
+
+    private final LongAdder hashCount = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+
+    public PasswordHashingExecutor(@Value("${login.hashing.threads:0}") int threads,
+                                   @Value("${login.hashing.queue-capacity:64}") int queueCapacity,
+                                   @Value("${login.hashing.timeout-ms:2000}") long timeoutMs,
+                                   @Value("${login.hashing.retry-after-seconds:1}") long retryAfterSeconds) {
+        //threads가 0이면 CPU 코어 수만큼
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.timeoutMs = timeoutMs;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public Authentication authenticate(AuthenticationManager authenticationManager, Authentication authenticationToken) {
+        Future<Authentication> future;
+        try {
+            future = executor.submit(() -> {
+                long start = System.nanoTime();
+                try {
+                    return authenticationManager.authenticate(authenticationToken);
+                } finally {
+                    long elapsed = System.nanoTime() - start;
+                    hashNanos.add(elapsed);
+                    hashCount.increment();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCount.increment();
+            log.warn("비밀번호 검증 큐가 가득 차서 로그인 거절, queue = {}", executor.getQueue().size());
+            throw new LoginRejectedException("로그인 요청이 많습니다. 잠시 후 다시 시도해 주세요.", retryAfterSeconds);
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof AuthenticationException authenticationException) throw authenticationException;
+            throw new AuthenticationServiceException("로그인 처리 중 오류가 발생했습니다.", cause);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejectedCount.increment();
+            throw new LoginRejectedException("로그인 처리 시간이 초과되었습니다. 잠시 후 다시 시도해 주세요.", retryAfterSeconds);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AuthenticationServiceException("로그인 처리 중 중단되었습니다.", e);
+        }
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    public long getHashCount() {
+        return hashCount.sum();
+    }
+
+    public long getTotalHashNanos() {
+        return hashNanos.sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
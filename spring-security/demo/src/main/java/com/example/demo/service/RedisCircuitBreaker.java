@@ -0,0 +1,118 @@
+package com.example.demo.service;
+
+import com.example.demo.error.RedisUnavailableException;
+import com.example.demo.util.AuthMetrics;
+import com.example.demo.util.AuthMetrics.RedisOutcome;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Redis 호출을 감싸는 circuit breaker.
+ * 연속으로 failure-threshold번 실패하거나 호출별 지연 예산(budget)을 넘기면 OPEN 상태가 되고,
+ * OPEN 동안에는 Redis를 호출하지 않고 바로 RedisUnavailableException을 던진다.
+ * open-duration-ms가 지나면 HALF_OPEN으로 한 번만 시험 호출을 보내서 성공하면 다시 CLOSED가 된다.
+ *
+ * 호출 자체의 최대 대기시간은 RedisConfig의 Lettuce command timeout으로 제한한다.
+ * 모든 Redis 호출이 여기를 지나가므로 명령별 지표(redis.command)도 여기서 기록한다.
+ */
+@Slf4j
+@Component
+public class RedisCircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openDurationNanos;
+    private final AuthMetrics authMetrics;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile long openedAt;
+
+    public RedisCircuitBreaker(@Value("${redis.breaker.failure-threshold:5}") int failureThreshold,
+                               @Value("${redis.breaker.open-duration-ms:1000}") long openDurationMs,
+                               AuthMetrics authMetrics) {
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(openDurationMs);
+        this.authMetrics = authMetrics;
+    }
+
+    public <T> T call(String operation, Duration budget, Supplier<T> call) {
+        if (!allowRequest()) {
+            authMetrics.redisRejected(operation);
+            throw new RedisUnavailableException("redis circuit open : " + operation);
+        }
+        long start = System.nanoTime();
+        T result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            authMetrics.redis(operation, RedisOutcome.FAILURE, System.nanoTime() - start);
+            onFailure(operation);
+            throw new RedisUnavailableException("redis 호출 실패 : " + operation, e);
+        }
+        //결과는 받았지만 예산을 넘긴 느린 호출도 실패로 센다. (brownout 감지)
+        long elapsed = System.nanoTime() - start;
+        if (elapsed > budget.toNanos()) {
+            authMetrics.redis(operation, RedisOutcome.SLOW, elapsed);
+            onFailure(operation);
+        } else {
+            authMetrics.redis(operation, RedisOutcome.SUCCESS, elapsed);
+            onSuccess();
+        }
+        return result;
+    }
+
+    public void run(String operation, Duration budget, Runnable call) {
+        call(operation, budget, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    // 같은 설정으로 상태만 따로 갖는 breaker. 백그라운드 작업(resync SCAN 등)이 느려도 요청 경로의 breaker는 열리지 않는다.
+    public RedisCircuitBreaker isolated() {
+        return new RedisCircuitBreaker(failureThreshold, TimeUnit.NANOSECONDS.toMillis(openDurationNanos), authMetrics);
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    private boolean allowRequest() {
+        State current = state.get();
+        if (current == State.CLOSED) return true;
+        if (current == State.OPEN && System.nanoTime() - openedAt >= openDurationNanos) {
+            //OPEN -> HALF_OPEN 전환에 성공한 쓰레드 하나만 시험 호출을 보낸다.
+            return state.compareAndSet(State.OPEN, State.HALF_OPEN);
+        }
+        return false;
+    }
+
+    private void onSuccess() {
+        consecutiveFailures.set(0);
+        if (state.get() != State.CLOSED) {
+            state.set(State.CLOSED);
+            log.info("redis circuit CLOSED");
+        }
+    }
+
+    private void onFailure(String operation) {
+        int failures = consecutiveFailures.incrementAndGet();
+        State current = state.get();
+        if (current == State.HALF_OPEN || (current == State.CLOSED && failures >= failureThreshold)) {
+            openedAt = System.nanoTime();
+            state.set(State.OPEN);
+            log.warn("redis circuit OPEN, operation = {}, failures = {}", operation, failures);
+        }
+    }
+}
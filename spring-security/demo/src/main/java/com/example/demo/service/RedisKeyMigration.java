@@ -0,0 +1,164 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.VerifiedToken;
+import com.example.demo.util.JwtTokenProvider;
+import com.example.demo.util.RedisKeys;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * 예전 RedisTemplate(JDK 직렬화)로 저장된 key를 새 형식(RedisKeys, 문자열)으로 옮긴다.
+ * 예전 key/value는 JDK 직렬화된 String이라 0xAC 0xED(직렬화 stream magic)로 시작한다.
+ *   username      -> rt:username
+ *   accessToken   -> epoch:<sub> (value가 "logout"인 토큰별 denylist, 로그아웃은 RevocationEpochs의 사용자별 epoch로 바뀌었다)
+ *                    key가 access token 원문이므로 sub를 꺼내서 그 사용자의 epoch를 지금으로 기록한 뒤에 지운다.
+ *                    epoch 기록은 그 사용자의 다른 토큰도 무효화한다. (다시 로그인해야 한다)
+ *
+ * 시작할 때 SCAN으로 한 번 전부 옮기고, 그 뒤에도 예전 버전 노드가 남아 있는 동안(rolling 배포)은
+ * 새 key에 값이 없을 때 예전 key를 찾아서 그 자리에서 옮긴다. (legacy-fallback, 배포가 끝나면 끈다)
+ * 옮길 때 남은 만료시간(PTTL)은 그대로 유지하고, 새 key가 이미 있으면 새 key를 우선한다.
+ */
+@Slf4j
+@Component
+public class RedisKeyMigration {
+
+    private static final byte[] STREAM_MAGIC = {(byte) 0xAC, (byte) 0xED};
+    private static final String LOGOUT_VALUE = "logout";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisCircuitBreaker redisCircuitBreaker;
+    private final JwtTokenProvider jwtTokenProvider;
+    private final RevocationEpochs revocationEpochs;
+    private final JdkSerializationRedisSerializer legacySerializer = new JdkSerializationRedisSerializer();
+    private final boolean enabled;
+    private final boolean legacyFallback;
+    private final int scanCount;
+    private final Duration readBudget;
+
+    public RedisKeyMigration(StringRedisTemplate stringRedisTemplate,
+                             RedisCircuitBreaker redisCircuitBreaker,
+                             JwtTokenProvider jwtTokenProvider,
+                             RevocationEpochs revocationEpochs,
+                             @Value("${redis.migration.enabled:true}") boolean enabled,
+                             @Value("${redis.migration.legacy-fallback:true}") boolean legacyFallback,
+                             @Value("${redis.migration.scan-count:1000}") int scanCount,
+                             @Value("${redis.breaker.read-budget-ms:20}") long readBudgetMs) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.redisCircuitBreaker = redisCircuitBreaker;
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.revocationEpochs = revocationEpochs;
+        this.enabled = enabled;
+        this.legacyFallback = legacyFallback;
+        this.scanCount = scanCount;
+        this.readBudget = Duration.ofMillis(readBudgetMs);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateOnStartup() {
+        if (!enabled) return;
+        try {
+            Result result = migrate();
+            if (result.migrated() > 0 || result.skipped() > 0) {
+                log.info("redis key 마이그레이션 완료, legacy = {}, migrated = {}, skipped = {}",
+                        result.legacy(), result.migrated(), result.skipped());
+            }
+        } catch (RuntimeException e) {
+            //옮기지 못한 key는 legacy-fallback으로 읽히므로 시작은 계속한다.
+            log.warn("redis key 마이그레이션 실패 : {}", e.getMessage());
+        }
+    }
+
+    // 전체 keyspace를 SCAN 하면서 예전 형식 key를 옮긴다. 여러 노드가 동시에 돌려도 결과는 같다.
+    public Result migrate() {
+        return stringRedisTemplate.execute((RedisCallback<Result>) connection -> {
+            long legacy = 0, migrated = 0, skipped = 0;
+            ScanOptions options = ScanOptions.scanOptions().count(scanCount).build();
+            try (Cursor<byte[]> cursor = connection.keyCommands().scan(options)) {
+                while (cursor.hasNext()) {
+                    byte[] key = cursor.next();
+                    if (!isLegacy(key)) continue;
+                    legacy++;
+                    //토큰별 denylist key는 epoch로 바꾸고 지우므로 skipped로 센다.
+                    if (move(connection, key, null) != null) migrated++;
+                    else skipped++;
+                }
+            }
+            return new Result(legacy, migrated, skipped);
+        });
+    }
+
+    /*
+    * 새 key(newKey)에 값이 없을 때 RedisService가 부른다. 예전 key에 값이 있으면 새 key로 옮기고 값을 돌려준다.
+    * 옮긴 뒤에 지워야 로그아웃(새 key 삭제) 이후에 예전 key로 다시 재발급되는 일이 없다.
+    * */
+    public String takeLegacy(String legacyKey, String newKey) {
+        if (!legacyFallback || legacyKey == null) return null;
+        byte[] key = legacySerializer.serialize(legacyKey);
+        return redisCircuitBreaker.call("get-legacy", readBudget,
+                () -> stringRedisTemplate.execute((RedisCallback<String>) connection -> move(connection, key, newKey)));
+    }
+
+    // 예전 key 하나를 옮기고 value를 돌려준다. 형식이 다르거나 이미 없어졌으면 null
+    private String move(RedisConnection connection, byte[] key, String expectedNewKey) {
+        byte[] rawValue = connection.stringCommands().get(key);
+        if (rawValue == null) return null;
+        Long ttlMillis = connection.keyCommands().pTtl(key);
+        String legacyKey;
+        String value;
+        try {
+            if (!(legacySerializer.deserialize(key) instanceof String k)
+                    || !(legacySerializer.deserialize(rawValue) instanceof String v)) {
+                return null;
+            }
+            legacyKey = k;
+            value = v;
+        } catch (SerializationException e) {
+            log.debug("JDK 직렬화가 아닌 key는 건너뜀 : {}", e.getMessage());
+            return null;
+        }
+        if (LOGOUT_VALUE.equals(value)) {
+            //epoch를 Redis에 기록하지 못하면 지우지 않고 다음 마이그레이션에서 다시 시도한다.
+            if (revokeLegacyLogout(legacyKey)) connection.keyCommands().del(key);
+            return null;
+        }
+        String newKey = RedisKeys.refreshToken(legacyKey);
+        if (expectedNewKey != null && !expectedNewKey.equals(newKey)) return null;
+        //PTTL : -1 만료시간 없음, -2 그 사이에 만료됨
+        if (ttlMillis != null && ttlMillis == -2) return null;
+        Expiration expiration = ttlMillis == null || ttlMillis < 0
+                ? Expiration.persistent() : Expiration.milliseconds(ttlMillis);
+        connection.stringCommands().set(newKey.getBytes(StandardCharsets.UTF_8), value.getBytes(StandardCharsets.UTF_8),
+                expiration, SetOption.ifAbsent());
+        connection.keyCommands().del(key);
+        return value;
+    }
+
+    // 로그아웃된 access token의 사용자 epoch를 기록한다. 만료되었거나 검증되지 않는 토큰은 요청에서도 거절되므로 기록하지 않는다.
+    private boolean revokeLegacyLogout(String accessToken) {
+        VerifiedToken verifiedToken = jwtTokenProvider.verify(accessToken);
+        if (!verifiedToken.isValid() || verifiedToken.getSubject() == null) return true;
+        return revocationEpochs.revokeAll(verifiedToken.getSubject());
+    }
+
+    private static boolean isLegacy(byte[] key) {
+        return key.length > 2 && key[0] == STREAM_MAGIC[0] && key[1] == STREAM_MAGIC[1];
+    }
+
+    public record Result(long legacy, long migrated, long skipped) {
+    }
+}
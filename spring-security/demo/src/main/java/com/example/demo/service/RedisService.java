@@ -1,53 +1,164 @@
 package com.example.demo.service;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import com.example.demo.util.LogSampler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.redis.core.HashOperations;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 /*
 * 참고 https://green-bin.tistory.com/69?category=1116728
+*
+* 모든 호출은 RedisCircuitBreaker를 거친다. Redis가 느리거나 죽어 있으면 RedisUnavailableException이 나간다.
+* key와 value는 문자열 그대로 저장한다. (StringRedisTemplate, key 규칙은 RedisKeys)
 * */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class RedisService {
-    private final RedisTemplate<String, Object> redisTemplate;
+
+    public enum SwapResult {
+        SWAPPED, MISMATCH, MISSING
+    }
+
+    //값이 expected와 같을 때만 바꾸는 compare-and-set. GET -> 비교 -> SET이 Redis 안에서 한 번에 실행된다.
+    //1 : 바꿈, 0 : 값이 다름, -1 : key 없음
+    private static final RedisScript<Long> COMPARE_AND_SET = new DefaultRedisScript<>(
+            "local current = redis.call('GET', KEYS[1]) "
+                    + "if not current then return -1 end "
+                    + "if current ~= ARGV[1] then return 0 end "
+                    + "redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3]) "
+                    + "return 1", Long.class);
+    private static final LogSampler DEBUG = LogSampler.debug(log);
+    private final StringRedisTemplate redisTemplate;
+    private final RedisWriteBehind redisWriteBehind;
+    private final RedisCircuitBreaker redisCircuitBreaker;
+    private final RedisKeyMigration redisKeyMigration;
+    //호출별 지연 예산. 넘기면 circuit breaker에서 실패로 센다.
+    private final Duration readBudget;
+    private final Duration writeBudget;
+
+    public RedisService(StringRedisTemplate redisTemplate,
+                        RedisWriteBehind redisWriteBehind,
+                        RedisCircuitBreaker redisCircuitBreaker,
+                        RedisKeyMigration redisKeyMigration,
+                        @Value("${redis.breaker.read-budget-ms:20}") long readBudgetMs,
+                        @Value("${redis.breaker.write-budget-ms:50}") long writeBudgetMs) {
+        this.redisTemplate = redisTemplate;
+        this.redisWriteBehind = redisWriteBehind;
+        this.redisCircuitBreaker = redisCircuitBreaker;
+        this.redisKeyMigration = redisKeyMigration;
+        this.readBudget = Duration.ofMillis(readBudgetMs);
+        this.writeBudget = Duration.ofMillis(writeBudgetMs);
+    }
 
     public void setValues(String key, String data) {
-        ValueOperations<String, Object> values = redisTemplate.opsForValue();
-        values.set(key, data);
+        ValueOperations<String, String> values = redisTemplate.opsForValue();
+        redisCircuitBreaker.run("set", writeBudget, () -> values.set(key, data));
     }
 
     public void setValues(String key, String data, Duration duration) {
-        ValueOperations<String, Object> values = redisTemplate.opsForValue();
-        values.set(key, data, duration);
-        log.info("redis에 value 저장 완료");
+        ValueOperations<String, String> values = redisTemplate.opsForValue();
+        redisCircuitBreaker.run("set", writeBudget, () -> values.set(key, data, duration));
+        if (DEBUG.sample()) log.debug("redis에 value 저장 완료");
+    }
+
+    // 급하지 않은 쓰기. write-behind 큐를 통해 모아서 파이프라인으로 보낸다.
+    public void setValuesAsync(String key, String data, Duration duration) {
+        redisWriteBehind.set(key, data, duration);
     }
 
     @Transactional
     public String getValues(String key) {
-        ValueOperations<String, Object> values = redisTemplate.opsForValue();
-        if(values.get(key) == null) return "false";
-        return (String) values.get(key);
+        //GET 한 번으로 존재 여부와 값을 같이 확인
+        String value = redisCircuitBreaker.call("get", readBudget, () -> redisTemplate.opsForValue().get(key));
+        if(value == null) return "false";
+        return value;
+    }
+
+    // key에 값이 없으면 예전 형식(JDK 직렬화)으로 저장된 legacyKey도 확인한다. 찾으면 새 key로 옮겨진다. (RedisKeyMigration)
+    public String getValues(String key, String legacyKey) {
+        String value = getValues(key);
+        if(checkExistsValue(value)) return value;
+        String legacyValue = redisKeyMigration.takeLegacy(legacyKey, key);
+        return legacyValue == null ? "false" : legacyValue;
+    }
+
+    // 여러 key를 MGET 한 번으로 조회. 없는 key는 getValues와 같이 "false"
+    public List<String> multiGetValues(Collection<String> keys) {
+        List<String> values = redisCircuitBreaker.call("mget", readBudget, () -> redisTemplate.opsForValue().multiGet(keys));
+        List<String> result = new ArrayList<>(keys.size());
+        if(values == null) {
+            keys.forEach(key -> result.add("false"));
+            return result;
+        }
+        for (String value : values) {
+            result.add(value == null ? "false" : value);
+        }
+        return result;
+    }
+
+    // GET + PTTL을 파이프라인으로 한 번에 보내서 값과 남은 만료시간을 같이 조회
+    public ValueWithTtl getValuesWithTtl(String key) {
+        List<Object> results = redisCircuitBreaker.call("get-ttl", readBudget, () -> redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                ops.opsForValue().get(key);
+                ops.getExpire(key, TimeUnit.MILLISECONDS);
+                return null;
+            }
+        }));
+        String value = results.get(0) == null ? "false" : (String) results.get(0);
+        long ttlMillis = results.get(1) == null ? -2L : (Long) results.get(1);
+        return new ValueWithTtl(value, ttlMillis);
+    }
+
+    // key의 값이 expected일 때만 value로 바꾼다. (refresh token 교체)
+    // key가 없으면 예전 형식의 legacyKey를 옮겨 온 뒤 한 번 더 시도한다.
+    public SwapResult compareAndSet(String key, String legacyKey, String expected, String value, Duration duration) {
+        SwapResult result = compareAndSet(key, expected, value, duration);
+        if(result == SwapResult.MISSING && redisKeyMigration.takeLegacy(legacyKey, key) != null) {
+            result = compareAndSet(key, expected, value, duration);
+        }
+        return result;
+    }
+
+    private SwapResult compareAndSet(String key, String expected, String value, Duration duration) {
+        Long result = redisCircuitBreaker.call("cas", writeBudget, () -> redisTemplate.execute(COMPARE_AND_SET,
+                List.of(key), expected, value, Long.toString(duration.toMillis())));
+        if(result == null || result < 0) return SwapResult.MISSING;
+        return result == 1 ? SwapResult.SWAPPED : SwapResult.MISMATCH;
     }
 
     public void deleteValues(String key) {
-        redisTemplate.delete(key);
+        redisCircuitBreaker.run("delete", writeBudget, () -> redisTemplate.delete(key));
     }
 
     public void expireValues(String key, int timeout) {
-        redisTemplate.expire(key, timeout, TimeUnit.MILLISECONDS);
+        redisCircuitBreaker.run("expire", writeBudget, () -> redisTemplate.expire(key, timeout, TimeUnit.MILLISECONDS));
     }
 
     public boolean checkExistsValue(String value) {
         return !value.equals("false");
     }
+
+    // ttlMillis : 남은 만료시간, 만료시간이 없으면 -1, key가 없으면 -2 (PTTL 규칙)
+    public record ValueWithTtl(String value, long ttlMillis) {
+    }
 }
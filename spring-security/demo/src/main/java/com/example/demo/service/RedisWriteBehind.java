@@ -0,0 +1,154 @@
+package com.example.demo.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 급하지 않은 Redis 쓰기(로그인 시 refresh token 저장)를 모아서 한 번에 보내는 write-behind 큐.
+ * 요청 쓰레드는 큐에 넣고 바로 돌아가고, 백그라운드 쓰레드가 flush-interval-ms 또는 batch-size 단위로
+ * 파이프라인(Lettuce 비동기 명령 + 한 번의 flush)으로 보낸다.
+ *
+ * durability가 SYNC이면 큐를 거치지 않고 바로 쓴다. 큐가 가득 차도 요청 쓰레드를 막지 않고 바로 쓴다.
+ */
+@Slf4j
+@Component
+public class RedisWriteBehind {
+
+    public enum Durability {
+        SYNC, ASYNC
+    }
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisCircuitBreaker redisCircuitBreaker;
+    private final Durability durability;
+    private final Duration flushBudget;
+    private final long flushIntervalNanos;
+    private final int batchSize;
+    private final BlockingQueue<PendingWrite> queue;
+
+    private volatile boolean running = true;
+    private Thread flusher;
+
+    public RedisWriteBehind(StringRedisTemplate redisTemplate,
+                            RedisCircuitBreaker redisCircuitBreaker,
+                            @Value("${redis.breaker.write-budget-ms:50}") long writeBudgetMs,
+                            @Value("${redis.write-behind.durability:ASYNC}") Durability durability,
+                            @Value("${redis.write-behind.flush-interval-ms:5}") long flushIntervalMs,
+                            @Value("${redis.write-behind.batch-size:64}") int batchSize,
+                            @Value("${redis.write-behind.queue-capacity:10000}") int queueCapacity) {
+        this.redisTemplate = redisTemplate;
+        this.redisCircuitBreaker = redisCircuitBreaker;
+        this.flushBudget = Duration.ofMillis(writeBudgetMs);
+        this.durability = durability;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (durability == Durability.SYNC) return;
+        flusher = new Thread(this::runFlushLoop, "redis-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (flusher != null) {
+            flusher.interrupt();
+            flusher.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        //종료 전에 남아있는 쓰기를 모두 보낸다.
+        List<PendingWrite> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            flush(remaining);
+        }
+    }
+
+    public void set(String key, String value, Duration duration) {
+        submit(new PendingWrite(key, value, duration));
+    }
+
+    public void delete(String key) {
+        submit(new PendingWrite(key, null, null));
+    }
+
+    public int pendingCount() {
+        return queue.size();
+    }
+
+    private void submit(PendingWrite write) {
+        if (durability == Durability.SYNC || !queue.offer(write)) {
+            flush(List.of(write));
+        }
+    }
+
+    private void runFlushLoop() {
+        List<PendingWrite> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                PendingWrite first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                //첫 번째 쓰기 이후 flush-interval 동안 batch-size까지 모은다.
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) break;
+                    PendingWrite next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingWrite> writes) {
+        try {
+            redisCircuitBreaker.call("pipeline", flushBudget, () -> redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                    RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                    for (PendingWrite write : writes) {
+                        if (write.value() == null) {
+                            ops.delete(write.key());
+                        } else {
+                            ops.opsForValue().set(write.key(), write.value(), write.duration());
+                        }
+                    }
+                    return null;
+                }
+            }));
+        } catch (RuntimeException e) {
+            log.warn("redis write-behind flush 실패, count = {} : {}", writes.size(), e.getMessage());
+        }
+    }
+
+    private record PendingWrite(String key, String value, Duration duration) {
+    }
+}
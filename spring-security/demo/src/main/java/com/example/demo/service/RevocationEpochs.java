@@ -0,0 +1,257 @@
+package com.example.demo.service;
+
+import com.example.demo.error.RedisUnavailableException;
+import com.example.demo.util.JwtAuthentication;
+import com.example.demo.util.RedisKeys;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 사용자별 로그아웃 시각(epoch, 초 단위)으로 토큰을 무효화한다.
+ * 토큰의 iat가 그 사용자의 epoch 이하이면 로그아웃 이전에 발급된 토큰이므로 거절한다. ("모든 기기에서 로그아웃")
+ *
+ * 로그아웃 한 번은 epoch:<username> 하나를 덮어쓰는 것이라 로그아웃이 많아져도 Redis 메모리는 사용자 수를 넘지 않는다.
+ * 요청마다 하는 확인은 로컬 map 조회 하나이고 Redis를 부르지 않는다.
+ * 노드 간 동기화는 Redis pub/sub(auth:epoch 채널)로 하고, 시작할 때와 주기적으로 epoch:* 를 SCAN 해서 다시 맞춘다.
+ * epoch key는 그 이전에 발급된 토큰이 모두 만료되는 시간(access/refresh 중 긴 쪽)이 지나면 같이 만료된다.
+ *
+ * 이전 형식의 토큰별 로그아웃 key(bl:<다이제스트>)에는 username이 없어서 epoch로 옮길 수 없다.
+ * 그래서 시작 후 access token 수명 동안은 캐시에 없는 토큰마다 bl: key도 확인한다. (isLegacyRevoked)
+ * resync에서 bl:* key가 하나도 남지 않은 것을 확인하면 더 일찍 그만둔다.
+ *
+ * resync의 SCAN은 cursor 한 묶음에 여러 번 왕복할 수 있어서 요청 경로의 지연 예산(read-budget-ms)으로 재지 않는다.
+ * 별도 예산(resync-budget-ms)과 별도 breaker를 써서 느린 동기화가 로그인/재발급/bl: 확인의 breaker를 열지 않게 한다.
+ */
+@Slf4j
+@Component
+public class RevocationEpochs implements MessageListener {
+
+    public static final String CHANNEL = "auth:epoch";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisCircuitBreaker redisCircuitBreaker;
+    private final Duration readBudget;
+    private final Duration writeBudget;
+    //resync(SCAN, MGET) 전용. 요청 경로 breaker와 실패 횟수를 공유하지 않는다.
+    private final RedisCircuitBreaker resyncBreaker;
+    private final Duration resyncBudget;
+    //epoch 이전 토큰이 살아 있을 수 있는 최대 시간 (ms)
+    private final long retentionMillis;
+    private final int scanCount;
+    //이 시각(ms)까지 이전 형식 로그아웃 key(bl:*)를 확인한다. 남은 key가 없으면 0
+    private volatile long legacyDenylistUntil;
+
+    //username -> epoch
+    private final Map<String, Epoch> epochs = new ConcurrentHashMap<>();
+
+    public RevocationEpochs(StringRedisTemplate stringRedisTemplate,
+                            RedisCircuitBreaker redisCircuitBreaker,
+                            @Value("${redis.breaker.read-budget-ms:20}") long readBudgetMs,
+                            @Value("${redis.breaker.write-budget-ms:50}") long writeBudgetMs,
+                            @Value("${jwt.access-token-validation-in-seconds}") long accessTokenExpTime,
+                            @Value("${jwt.refresh-token-validity-in-seconds}") long refreshTokenExpTime,
+                            @Value("${jwt.revocation.scan-count:1000}") int scanCount,
+                            @Value("${jwt.revocation.resync-budget-ms:2000}") long resyncBudgetMs,
+                            @Value("${jwt.revocation.legacy-denylist:true}") boolean legacyDenylist) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.redisCircuitBreaker = redisCircuitBreaker;
+        this.readBudget = Duration.ofMillis(readBudgetMs);
+        this.writeBudget = Duration.ofMillis(writeBudgetMs);
+        this.resyncBreaker = redisCircuitBreaker.isolated();
+        this.resyncBudget = Duration.ofMillis(resyncBudgetMs);
+        this.retentionMillis = Math.max(accessTokenExpTime, refreshTokenExpTime);
+        this.scanCount = scanCount;
+        //bl: key는 access token 만료시각까지만 남아 있었다.
+        this.legacyDenylistUntil = legacyDenylist ? System.currentTimeMillis() + accessTokenExpTime : 0;
+    }
+
+    // issuedAt : 토큰의 iat (epoch seconds, 없으면 0)
+    public boolean isRevoked(String username, long issuedAt) {
+        Epoch epoch = epochs.get(username);
+        return epoch != null && issuedAt <= epoch.seconds();
+    }
+
+    public boolean isRevoked(Authentication authentication) {
+        if (authentication instanceof JwtAuthentication jwtAuthentication) {
+            return isRevoked(jwtAuthentication.getName(), jwtAuthentication.getIssuedAt());
+        }
+        return false;
+    }
+
+    public boolean checksLegacyDenylist() {
+        return legacyDenylistUntil > System.currentTimeMillis();
+    }
+
+    /*
+    * 이전 형식(bl:<다이제스트>)으로 로그아웃된 토큰인지. 새 bl: key는 더 이상 생기지 않으므로 캐시에 넣기 전에 한 번만 확인하면 된다.
+    * 확인 기간이 아니면 Redis를 부르지 않는다.
+    * Redis를 못 쓰면 RedisUnavailableException. 로그아웃 여부를 모르는 것이므로 호출하는 쪽은 거절하고 캐시하지 않는다.
+    * */
+    public boolean isLegacyRevoked(String accessToken) {
+        if (!checksLegacyDenylist()) return false;
+        return Boolean.TRUE.equals(redisCircuitBreaker.call("exists-legacy", readBudget,
+                () -> stringRedisTemplate.hasKey(RedisKeys.legacyLogout(accessToken))));
+    }
+
+    /*
+    * 새로 발급할 토큰의 iat. iat는 초 단위라서 로그아웃한 그 초 안에 다시 로그인하면 새 토큰도 epoch 이하가 된다.
+    * 그래서 epoch보다 항상 1초 뒤로 맞춘다. 다른 노드에서 방금 로그아웃했으면 pub/sub 메시지가 아직 안 왔을 수 있으므로
+    * 로컬 map만 보지 않고 Redis의 epoch:<username>을 읽어서 합친다. (로그인/재발급마다 GET 한 번)
+    * Redis를 못 쓰면 이 노드가 알고 있는 epoch로 맞춘다.
+    * */
+    public long issuedAt(String username) {
+        long now = System.currentTimeMillis() / 1000;
+        Epoch epoch = fetch(username);
+        return epoch == null ? now : Math.max(now, epoch.seconds() + 1);
+    }
+
+    // 로그아웃. 지금까지 발급된 이 사용자의 토큰을 모두 무효화한다.
+    // Redis를 쓸 수 없어도 이 노드에서는 바로 반영되도록 로컬 기록은 항상 한다. Redis에 기록했으면 true
+    public boolean revokeAll(String username) {
+        long seconds = System.currentTimeMillis() / 1000;
+        long expiresAt = System.currentTimeMillis() + retentionMillis;
+        merge(username, seconds, expiresAt);
+        String value = Long.toString(seconds);
+        try {
+            redisCircuitBreaker.run("set", writeBudget,
+                    () -> stringRedisTemplate.opsForValue().set(RedisKeys.epoch(username), value, Duration.ofMillis(retentionMillis)));
+        } catch (RedisUnavailableException e) {
+            log.warn("로그아웃 epoch 기록 실패 : {}", e.getMessage());
+            return false;
+        }
+        try {
+            redisCircuitBreaker.run("publish", writeBudget,
+                    () -> stringRedisTemplate.convertAndSend(CHANNEL, username + ":" + value));
+        } catch (RedisUnavailableException e) {
+            //다른 노드는 resync에서 epoch:* 를 읽어서 맞춘다.
+            log.warn("로그아웃 epoch 이벤트 발행 실패 : {}", e.getMessage());
+        }
+        return true;
+    }
+
+    // 다른 노드(자기 자신 포함)에서 발행한 로그아웃 이벤트
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        //메시지 형식 : <username>:<epoch>, username에 ':'가 들어갈 수 있으므로 마지막 ':' 기준
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.lastIndexOf(':');
+        try {
+            merge(body.substring(0, separator), Long.parseLong(body.substring(separator + 1)),
+                    System.currentTimeMillis() + retentionMillis);
+        } catch (RuntimeException e) {
+            log.warn("잘못된 로그아웃 epoch 이벤트 무시 : {}", body);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resyncOnStartup() {
+        resync();
+    }
+
+    // pub/sub 메시지는 연결이 끊긴 동안 유실될 수 있으므로 주기적으로 Redis와 다시 맞추고, 만료된 epoch는 지운다.
+    // SCAN 한 묶음과 MGET 한 번이 각각 resync 전용 breaker를 지나간다. 열려 있으면 이번 동기화는 건너뛴다.
+    @Scheduled(initialDelayString = "${jwt.revocation.resync-interval-ms:60000}",
+            fixedDelayString = "${jwt.revocation.resync-interval-ms:60000}")
+    public void resync() {
+        long now = System.currentTimeMillis();
+        epochs.values().removeIf(epoch -> epoch.expiresAt() <= now);
+        try {
+            int count = 0;
+            ScanOptions options = ScanOptions.scanOptions().match(RedisKeys.EPOCH_PREFIX + "*").count(scanCount).build();
+            try (Cursor<String> cursor = resyncBreaker.call("resync-scan", resyncBudget, () -> stringRedisTemplate.scan(options))) {
+                List<String> keys;
+                do {
+                    keys = resyncBreaker.call("resync-scan", resyncBudget, () -> next(cursor, scanCount));
+                    count += load(keys, now);
+                } while (keys.size() == scanCount);
+            }
+            log.info("로그아웃 epoch 동기화 완료, count = {}", count);
+            if (checksLegacyDenylist()) probeLegacyDenylist();
+        } catch (RuntimeException e) {
+            //Redis를 못 쓰면 로컬 epoch를 그대로 쓴다. (pub/sub로 받은 값과 이 노드의 로그아웃은 들어 있다)
+            log.warn("로그아웃 epoch 동기화 실패 : {}", e.getMessage());
+        }
+    }
+
+    public int size() {
+        return epochs.size();
+    }
+
+    // key 묶음을 MGET 한 번으로 읽어서 로컬 map에 합친다.
+    private int load(List<String> keys, long now) {
+        if (keys.isEmpty()) return 0;
+        List<String> values = resyncBreaker.call("resync-mget", resyncBudget, () -> stringRedisTemplate.opsForValue().multiGet(keys));
+        if (values == null) return 0;
+        int loaded = 0;
+        for (int i = 0; i < keys.size(); i++) {
+            String value = values.get(i);
+            if (value == null) continue;
+            String username = keys.get(i).substring(RedisKeys.EPOCH_PREFIX.length());
+            //남은 만료시간은 조회하지 않고 retention을 다시 준다. Redis에서 만료된 epoch는 더 이상 갱신되지 않아서 retention이 지나면 지워진다.
+            merge(username, Long.parseLong(value), now + retentionMillis);
+            loaded++;
+        }
+        return loaded;
+    }
+
+    // Redis의 epoch를 로컬 map에 합치고, 합친 결과를 돌려준다.
+    private Epoch fetch(String username) {
+        try {
+            String value = redisCircuitBreaker.call("get", readBudget,
+                    () -> stringRedisTemplate.opsForValue().get(RedisKeys.epoch(username)));
+            if (value != null) {
+                merge(username, Long.parseLong(value), System.currentTimeMillis() + retentionMillis);
+            }
+        } catch (RedisUnavailableException | NumberFormatException e) {
+            log.warn("로그아웃 epoch 조회 실패, 로컬 epoch 사용 : {}", e.getMessage());
+        }
+        return epochs.get(username);
+    }
+
+    // 이전 형식 로그아웃 key(bl:*)가 하나도 없으면 더 이상 확인하지 않는다. (하나라도 찾으면 SCAN을 멈춘다)
+    // 남은 key가 없으면 keyspace 전체를 훑으므로 resync 전용 breaker와 예산으로 잰다.
+    private void probeLegacyDenylist() {
+        ScanOptions options = ScanOptions.scanOptions().match(RedisKeys.LEGACY_LOGOUT_PREFIX + "*").count(scanCount).build();
+        try (Cursor<String> cursor = resyncBreaker.call("resync-scan", resyncBudget, () -> stringRedisTemplate.scan(options))) {
+            if (resyncBreaker.call("resync-scan", resyncBudget, () -> next(cursor, 1)).isEmpty()) {
+                legacyDenylistUntil = 0;
+                log.info("이전 형식 로그아웃 key(bl:*)가 남아 있지 않아서 확인을 끝냅니다.");
+            }
+        }
+    }
+
+    // cursor에서 key를 max개까지 꺼낸다. 덜 나오면 SCAN이 끝난 것
+    private static List<String> next(Cursor<String> cursor, int max) {
+        List<String> keys = new ArrayList<>(max);
+        while (keys.size() < max && cursor.hasNext()) {
+            keys.add(cursor.next());
+        }
+        return keys;
+    }
+
+    // epoch는 늦은 쪽만 남긴다. 순서가 뒤바뀐 메시지가 와도 되돌아가지 않는다.
+    private void merge(String username, long seconds, long expiresAt) {
+        epochs.merge(username, new Epoch(seconds, expiresAt),
+                (current, next) -> current.seconds() >= next.seconds() ? current : next);
+    }
+
+    private record Epoch(long seconds, long expiresAt) {
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.demo.util;
+
+import com.example.demo.service.PasswordHashingExecutor;
+import com.example.demo.service.RedisCircuitBreaker;
+import com.example.demo.service.RedisWriteBehind;
+import com.example.demo.service.RevocationEpochs;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+// 이미 각 컴포넌트가 세고 있는 값(캐시 hit/miss, 로그아웃 epoch 수, 해싱 큐, write-behind 대기 수, circuit 상태)을 지표로 노출한다.
+@Component
+@RequiredArgsConstructor
+public class AuthMeterBinder implements MeterBinder {
+
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final RedisWriteBehind redisWriteBehind;
+    private final RedisCircuitBreaker redisCircuitBreaker;
+    private final RevocationEpochs revocationEpochs;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("auth.verify.cache", verifiedTokenCache, VerifiedTokenCache::getHitCount)
+                .tag("result", "hit").register(registry);
+        FunctionCounter.builder("auth.verify.cache", verifiedTokenCache, VerifiedTokenCache::getMissCount)
+                .tag("result", "miss").register(registry);
+        Gauge.builder("auth.verify.cache.size", verifiedTokenCache, VerifiedTokenCache::size)
+                .register(registry);
+        Gauge.builder("auth.revocation.epochs", revocationEpochs, RevocationEpochs::size)
+                .description("로컬에 들고 있는 사용자별 로그아웃 epoch 수").register(registry);
+
+        Gauge.builder("auth.login.hash.queue", passwordHashingExecutor, PasswordHashingExecutor::getQueueDepth)
+                .description("비밀번호 검증 대기 중인 로그인 수").register(registry);
+        Gauge.builder("auth.login.hash.active", passwordHashingExecutor, PasswordHashingExecutor::getActiveCount)
+                .register(registry);
+        FunctionCounter.builder("auth.login.hash.rejected", passwordHashingExecutor, PasswordHashingExecutor::getRejectedCount)
+                .description("해싱 풀이 가득 차서 503으로 거절한 로그인").register(registry);
+
+        Gauge.builder("redis.write_behind.pending", redisWriteBehind, RedisWriteBehind::pendingCount)
+                .register(registry);
+        //0 : CLOSED, 1 : OPEN, 2 : HALF_OPEN
+        Gauge.builder("redis.breaker.state", redisCircuitBreaker, breaker -> breaker.getState().ordinal())
+                .register(registry);
+    }
+}
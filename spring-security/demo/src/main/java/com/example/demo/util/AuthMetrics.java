@@ -0,0 +1,179 @@
+package com.example.demo.util;
+
+import com.example.demo.dto.VerifiedToken;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 인증 파이프라인 Micrometer 지표. (/actuator/prometheus)
+ *
+ * 태그 값은 모두 enum 이나 코드에 고정된 Redis 명령 이름이라서 종류가 정해져 있다. (username, 경로, 토큰 값은 태그로 쓰지 않는다)
+ * Timer는 태그 조합별로 미리 만들어 두고, 요청 처리 중에는 registry 조회 없이 record만 한다.
+ */
+@Component
+public class AuthMetrics {
+
+    public enum LoginOutcome {
+        SUCCESS, BAD_CREDENTIALS, REJECTED, TOO_LARGE, ERROR
+    }
+
+    public enum VerifyOutcome {
+        //UNAVAILABLE : 이전 형식 로그아웃 key(bl:)를 Redis로 확인하지 못해서 거절한 토큰
+        VERIFIED, CACHED, MISSING, REVOKED, EXPIRED, MALFORMED, BAD_SIGNATURE, UNSUPPORTED, NO_AUTHORITIES, UNAVAILABLE
+    }
+
+    public enum Outcome {
+        SUCCESS, FAILURE
+    }
+
+    public enum RedisOutcome {
+        //SLOW : 결과는 받았지만 지연 예산을 넘긴 호출
+        SUCCESS, SLOW, FAILURE
+    }
+
+    private static final Duration MIN_EXPECTED = Duration.ofNanos(1_000);
+    private static final Duration MAX_EXPECTED = Duration.ofSeconds(10);
+
+    private final MeterRegistry registry;
+    private final Map<LoginOutcome, Timer> loginTimers;
+    private final Timer passwordHashTimer;
+    private final Map<VerifyOutcome, Timer> verifyTimers;
+    private final Timer parseTimer;
+    private final Map<Outcome, Timer> reissueTimers;
+    private final Map<Outcome, Timer> logoutTimers;
+    private final Counter renewalCounter;
+    private final Counter auditDroppedCounter;
+    private final Map<String, RedisMeters> redisMeters = new ConcurrentHashMap<>();
+
+    public AuthMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.loginTimers = timers(LoginOutcome.class, "auth.login", "로그인 전체 시간 (본문 파싱, 비밀번호 검증, 토큰 발급)");
+        this.passwordHashTimer = timer("auth.login.hash", "비밀번호(BCrypt) 비교 시간 (PasswordEncoder.matches)");
+        this.verifyTimers = timers(VerifyOutcome.class, "auth.verify", "JwtVerificationFilter 토큰 확인 시간");
+        this.parseTimer = timer("auth.verify.parse", "캐시에 없는 토큰의 서명 검증 + claims 파싱 시간");
+        this.reissueTimers = timers(Outcome.class, "auth.reissue", "access token 재발급 시간");
+        this.logoutTimers = timers(Outcome.class, "auth.logout", "로그아웃 처리 시간");
+        this.renewalCounter = Counter.builder("auth.renewal")
+                .description("만료 전에 JwtVerificationFilter에서 새로 발급한 access token")
+                .register(registry);
+        this.auditDroppedCounter = Counter.builder("auth.audit.dropped")
+                .description("감사 이벤트 링 버퍼가 가득 차서 버린 이벤트 (AuthAuditLog)")
+                .register(registry);
+    }
+
+    public void login(LoginOutcome outcome, long nanos) {
+        loginTimers.get(outcome).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void passwordHash(long nanos) {
+        passwordHashTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void verify(VerifyOutcome outcome, long nanos) {
+        verifyTimers.get(outcome).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void parse(long nanos) {
+        parseTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void reissue(Outcome outcome, long nanos) {
+        reissueTimers.get(outcome).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void logout(Outcome outcome, long nanos) {
+        logoutTimers.get(outcome).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void renewal() {
+        renewalCounter.increment();
+    }
+
+    public void auditDropped() {
+        auditDroppedCounter.increment();
+    }
+
+    // operation : RedisCircuitBreaker에 넘기는 명령 이름 ("get", "set", "pipeline" ...)
+    public void redis(String operation, RedisOutcome outcome, long nanos) {
+        redisMeters(operation).timers().get(outcome).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    // circuit이 열려 있어서 Redis를 호출하지 않고 거절한 요청
+    public void redisRejected(String operation) {
+        redisMeters(operation).rejected().increment();
+    }
+
+    // 검증 결과 -> 지표 태그. servlet / reactive 필터가 같이 쓴다.
+    public static VerifyOutcome outcomeOf(VerifiedToken verifiedToken) {
+        switch (verifiedToken.getFailureReason()) {
+            case NONE:
+                //refresh token처럼 권한 정보가 없는 토큰은 인증에 쓰지 않는다.
+                return verifiedToken.getAuthorities().isEmpty() ? VerifyOutcome.NO_AUTHORITIES : VerifyOutcome.VERIFIED;
+            case EMPTY:
+                return VerifyOutcome.MISSING;
+            case EXPIRED:
+                return VerifyOutcome.EXPIRED;
+            case BAD_SIGNATURE:
+                return VerifyOutcome.BAD_SIGNATURE;
+            case UNSUPPORTED:
+                return VerifyOutcome.UNSUPPORTED;
+            default:
+                return VerifyOutcome.MALFORMED;
+        }
+    }
+
+    private RedisMeters redisMeters(String operation) {
+        RedisMeters meters = redisMeters.get(operation);
+        if (meters != null) return meters;
+        return redisMeters.computeIfAbsent(operation, op -> {
+            Map<RedisOutcome, Timer> timers = new EnumMap<>(RedisOutcome.class);
+            for (RedisOutcome outcome : RedisOutcome.values()) {
+                timers.put(outcome, histogram(Timer.builder("redis.command")
+                        .description("RedisService 명령 시간")
+                        .tag("operation", op)
+                        .tag("outcome", tagValue(outcome))));
+            }
+            Counter rejected = Counter.builder("redis.command.rejected")
+                    .description("circuit OPEN으로 보내지 않은 Redis 명령")
+                    .tag("operation", op)
+                    .register(registry);
+            return new RedisMeters(timers, rejected);
+        });
+    }
+
+    private <E extends Enum<E>> Map<E, Timer> timers(Class<E> outcomes, String name, String description) {
+        Map<E, Timer> timers = new EnumMap<>(outcomes);
+        for (E outcome : outcomes.getEnumConstants()) {
+            timers.put(outcome, histogram(Timer.builder(name).description(description).tag("outcome", tagValue(outcome))));
+        }
+        return timers;
+    }
+
+    private Timer timer(String name, String description) {
+        return histogram(Timer.builder(name).description(description));
+    }
+
+    // 백분위는 서버에서 합칠 수 있도록 histogram 버킷으로 내보낸다.
+    private Timer histogram(Timer.Builder builder) {
+        return builder.publishPercentileHistogram()
+                .minimumExpectedValue(MIN_EXPECTED)
+                .maximumExpectedValue(MAX_EXPECTED)
+                .register(registry);
+    }
+
+    private static String tagValue(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+
+    private record RedisMeters(Map<RedisOutcome, Timer> timers, Counter rejected) {
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.demo.util;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 권한 문자열 -> 정규(canonical) GrantedAuthority 인스턴스 레지스트리.
+ * 권한마다 0~63번 비트를 하나 배정하고, 권한 조합은 long 비트셋(RoleSet)으로 표현한다.
+ *
+ * 토큰의 role claim 파싱, Member 권한 목록, 인가(hasRole) 검사가 모두 여기서 map 조회 / 비트 연산만 하도록 만든다.
+ * role claim 값은 우리가 서명한 토큰에서만 오므로 종류가 많지 않아서 claim 문자열 자체를 키로 캐시한다.
+ */
+public final class AuthorityRegistry {
+
+    public static final String ROLE_PREFIX = "ROLE_";
+
+    private static final int MAX_AUTHORITIES = 64;
+    private static final int MAX_CACHED_CLAIMS = 1024;
+
+    private static final Map<String, Integer> INDEX = new ConcurrentHashMap<>();
+    private static final AtomicReferenceArray<GrantedAuthority> AUTHORITIES = new AtomicReferenceArray<>(MAX_AUTHORITIES);
+    private static final Map<Long, RoleSet> BY_BITS = new ConcurrentHashMap<>();
+    private static final Map<String, RoleSet> BY_CLAIM = new ConcurrentHashMap<>();
+    //"user" 처럼 ROLE_ 접두사 없는 Member.roles 값 -> 비트
+    private static final Map<String, Long> ROLE_BITS = new ConcurrentHashMap<>();
+    //synchronized는 가상 쓰레드를 carrier에 고정(pinning)시키므로 ReentrantLock 사용
+    private static final ReentrantLock REGISTER_LOCK = new ReentrantLock();
+
+    public static final RoleSet EMPTY = new RoleSet(0L, List.of(), "");
+
+    static {
+        BY_BITS.put(0L, EMPTY);
+        //SecurityConfig에서 쓰는 권한은 미리 등록해 둔다.
+        bit(ROLE_PREFIX + "user");
+        bit(ROLE_PREFIX + "admin");
+    }
+
+    private AuthorityRegistry() {
+    }
+
+    // 권한에 배정된 비트. 처음 보는 권한이면 새로 등록한다.
+    public static long bit(String authority) {
+        Integer index = INDEX.get(authority);
+        if (index == null) {
+            index = register(authority);
+        }
+        return 1L << index;
+    }
+
+    public static GrantedAuthority authority(String authority) {
+        return AUTHORITIES.get(Long.numberOfTrailingZeros(bit(authority)));
+    }
+
+    public static RoleSet ofBits(long bits) {
+        RoleSet roleSet = BY_BITS.get(bits);
+        if (roleSet != null) return roleSet;
+        return BY_BITS.computeIfAbsent(bits, AuthorityRegistry::build);
+    }
+
+    // 토큰의 role claim("ROLE_user,ROLE_admin") -> RoleSet
+    public static RoleSet parseClaim(String claim) {
+        if (claim == null || claim.isEmpty()) return EMPTY;
+        RoleSet roleSet = BY_CLAIM.get(claim);
+        if (roleSet != null) return roleSet;
+        long bits = 0;
+        for (String authority : claim.split(",")) {
+            if (!authority.isEmpty()) bits |= bit(authority);
+        }
+        roleSet = ofBits(bits);
+        if (BY_CLAIM.size() < MAX_CACHED_CLAIMS) {
+            BY_CLAIM.put(claim, roleSet);
+        }
+        return roleSet;
+    }
+
+    // Member.roles("user", "admin") -> RoleSet(ROLE_user, ROLE_admin)
+    public static RoleSet ofRoles(Collection<String> roles) {
+        long bits = 0;
+        for (String role : roles) {
+            Long bit = ROLE_BITS.get(role);
+            if (bit == null) {
+                bit = bit(ROLE_PREFIX + role);
+                ROLE_BITS.put(role, bit);
+            }
+            bits |= bit;
+        }
+        return ofBits(bits);
+    }
+
+    public static RoleSet ofAuthorities(Collection<? extends GrantedAuthority> authorities) {
+        long bits = 0;
+        for (GrantedAuthority authority : authorities) {
+            bits |= bit(authority.getAuthority());
+        }
+        return ofBits(bits);
+    }
+
+    // 인가 검사용. JwtAuthentication이면 들고 있는 RoleSet을 그대로 쓴다.
+    public static RoleSet roleSetOf(Authentication authentication) {
+        if (authentication instanceof JwtAuthentication jwtAuthentication) {
+            return jwtAuthentication.getRoleSet();
+        }
+        return ofAuthorities(authentication.getAuthorities());
+    }
+
+    private static int register(String authority) {
+        REGISTER_LOCK.lock();
+        try {
+            Integer index = INDEX.get(authority);
+            if (index != null) return index;
+            int next = INDEX.size();
+            if (next >= MAX_AUTHORITIES) {
+                throw new IllegalStateException("등록할 수 있는 권한 개수(" + MAX_AUTHORITIES + ")를 넘었습니다. " + authority);
+            }
+            AUTHORITIES.set(next, new SimpleGrantedAuthority(authority));
+            INDEX.put(authority, next);
+            return next;
+        } finally {
+            REGISTER_LOCK.unlock();
+        }
+    }
+
+    private static RoleSet build(long bits) {
+        List<GrantedAuthority> authorities = new ArrayList<>(Long.bitCount(bits));
+        StringBuilder claim = new StringBuilder();
+        long remaining = bits;
+        while (remaining != 0) {
+            int index = Long.numberOfTrailingZeros(remaining);
+            remaining &= remaining - 1;
+            GrantedAuthority authority = AUTHORITIES.get(index);
+            authorities.add(authority);
+            if (claim.length() > 0) claim.append(',');
+            claim.append(authority.getAuthority());
+        }
+        return new RoleSet(bits, List.copyOf(authorities), claim.toString());
+    }
+}
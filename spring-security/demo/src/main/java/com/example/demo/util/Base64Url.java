@@ -0,0 +1,82 @@
+package com.example.demo.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// padding 없는 Base64URL(JWS compact 형식) 인코딩/디코딩. 호출하는 쪽 버퍼에 바로 쓴다.
+// java.util.Base64는 배열 전체를 입력으로 받고 결과 배열을 새로 만들어서 JwtMinter, JwtVerifier에서는 쓰지 않는다.
+final class Base64Url {
+
+    private static final byte[] ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_"
+            .getBytes(StandardCharsets.US_ASCII);
+    //ASCII -> 6bit 값, 알파벳이 아니면 -1
+    private static final byte[] VALUES = new byte[128];
+
+    static {
+        Arrays.fill(VALUES, (byte) -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            VALUES[ALPHABET[i]] = (byte) i;
+        }
+    }
+
+    private Base64Url() {
+    }
+
+    static int encodedLength(int length) {
+        return (length / 3) * 4 + (length % 3 == 0 ? 0 : length % 3 + 1);
+    }
+
+    static boolean isAlphabet(char c) {
+        return c < 128 && VALUES[c] >= 0;
+    }
+
+    // src[0, length)를 dst[position..]에 쓰고 다음 위치를 반환
+    static int encode(byte[] src, int length, byte[] dst, int position) {
+        int i = 0;
+        for (int end = length - length % 3; i < end; i += 3) {
+            int bits = (src[i] & 0xff) << 16 | (src[i + 1] & 0xff) << 8 | (src[i + 2] & 0xff);
+            dst[position++] = ALPHABET[bits >>> 18];
+            dst[position++] = ALPHABET[(bits >>> 12) & 0x3f];
+            dst[position++] = ALPHABET[(bits >>> 6) & 0x3f];
+            dst[position++] = ALPHABET[bits & 0x3f];
+        }
+        int remaining = length - i;
+        if (remaining == 1) {
+            int bits = (src[i] & 0xff) << 16;
+            dst[position++] = ALPHABET[bits >>> 18];
+            dst[position++] = ALPHABET[(bits >>> 12) & 0x3f];
+        } else if (remaining == 2) {
+            int bits = (src[i] & 0xff) << 16 | (src[i + 1] & 0xff) << 8;
+            dst[position++] = ALPHABET[bits >>> 18];
+            dst[position++] = ALPHABET[(bits >>> 12) & 0x3f];
+            dst[position++] = ALPHABET[(bits >>> 6) & 0x3f];
+        }
+        return position;
+    }
+
+    // 디코딩 결과 길이, 올바른 Base64URL 길이가 아니면 -1
+    static int decodedLength(int length) {
+        return length % 4 == 1 ? -1 : length / 4 * 3 + Math.max(0, length % 4 - 1);
+    }
+
+    // src[from, to) (알파벳만 들어 있다고 확인된 ASCII)를 dst[0..]에 디코딩하고 길이를 반환. 길이가 잘못되었으면 -1
+    static int decode(byte[] src, int from, int to, byte[] dst) {
+        int length = decodedLength(to - from);
+        if (length < 0) return -1;
+        int position = 0;
+        int i = from;
+        for (int end = to - (to - from) % 4; i < end; i += 4) {
+            int bits = VALUES[src[i]] << 18 | VALUES[src[i + 1]] << 12 | VALUES[src[i + 2]] << 6 | VALUES[src[i + 3]];
+            dst[position++] = (byte) (bits >> 16);
+            dst[position++] = (byte) (bits >> 8);
+            dst[position++] = (byte) bits;
+        }
+        int remaining = to - i;
+        if (remaining >= 2) {
+            int bits = VALUES[src[i]] << 18 | VALUES[src[i + 1]] << 12 | (remaining == 3 ? VALUES[src[i + 2]] << 6 : 0);
+            dst[position++] = (byte) (bits >> 16);
+            if (remaining == 3) dst[position++] = (byte) (bits >> 8);
+        }
+        return position;
+    }
+}
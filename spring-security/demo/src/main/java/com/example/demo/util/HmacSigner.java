@@ -0,0 +1,47 @@
+package com.example.demo.util;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+
+import javax.crypto.Mac;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+
+// 키로 초기화해 둔 Mac 원본. 쓰레드마다 clone 해서 쓴다. (원본은 update 하지 않으므로 clone만 동시에 해도 된다)
+// Mac.getInstance + init은 provider 조회와 키 패딩 계산을 해서 토큰마다 하기엔 비싸다.
+final class HmacSigner {
+
+    private final Key key;
+    private final SignatureAlgorithm algorithm;
+    private final Mac prototype;
+    private final int macLength;
+
+    HmacSigner(Key key, SignatureAlgorithm algorithm) {
+        this.key = key;
+        this.algorithm = algorithm;
+        this.prototype = init();
+        this.macLength = prototype.getMacLength();
+    }
+
+    int macLength() {
+        return macLength;
+    }
+
+    Mac newMac() {
+        try {
+            return (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            //clone을 지원하지 않는 provider면 새로 만든다.
+            return init();
+        }
+    }
+
+    private Mac init() {
+        try {
+            Mac mac = Mac.getInstance(algorithm.getJcaName());
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("서명 Mac을 만들 수 없습니다. " + algorithm, e);
+        }
+    }
+}
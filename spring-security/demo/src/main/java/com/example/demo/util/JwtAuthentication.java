@@ -0,0 +1,84 @@
+package com.example.demo.util;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+
+// access token으로 인증된 사용자의 불변 Authentication
+// VerifiedTokenCache에 저장되어 여러 요청이 같은 인스턴스를 공유하므로 상태를 바꿀 수 없게 만든다.
+public final class JwtAuthentication implements Authentication {
+
+    private final JwtPrincipal principal;
+    private final String token;
+    //토큰의 iat(epoch seconds), 로그아웃 epoch와 비교한다. (RevocationEpochs)
+    private final long issuedAt;
+    //토큰의 auth_time(epoch seconds), 처음 로그인한 시각. 없으면 0. 갱신 한도에 쓴다. (AccessTokenRenewal)
+    private final long authTime;
+    //토큰의 exp(epoch millis), 없으면 0. 만료 전 갱신에 쓴다. (AccessTokenRenewal)
+    private final long expiresAt;
+
+    public JwtAuthentication(JwtPrincipal principal, String token, long issuedAt, long authTime, long expiresAt) {
+        this.principal = principal;
+        this.token = token;
+        this.issuedAt = issuedAt;
+        this.authTime = authTime;
+        this.expiresAt = expiresAt;
+    }
+
+    public RoleSet getRoleSet() {
+        return principal.roleSet();
+    }
+
+    public long getIssuedAt() {
+        return issuedAt;
+    }
+
+    public long getAuthTime() {
+        return authTime;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return principal.roleSet().getAuthorities();
+    }
+
+    @Override
+    public Object getCredentials() {
+        return token;
+    }
+
+    @Override
+    public Object getDetails() {
+        return null;
+    }
+
+    @Override
+    public Object getPrincipal() {
+        return principal;
+    }
+
+    @Override
+    public boolean isAuthenticated() {
+        return true;
+    }
+
+    @Override
+    public void setAuthenticated(boolean isAuthenticated) throws IllegalArgumentException {
+        throw new IllegalArgumentException("JwtAuthentication은 공유되는 불변 객체라서 인증 상태를 바꿀 수 없습니다.");
+    }
+
+    @Override
+    public String getName() {
+        return principal.username();
+    }
+
+    @Override
+    public String toString() {
+        return "JwtAuthentication[" + principal.username() + ", " + principal.roleSet() + "]";
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.demo.util;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.SigningKeyResolver;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.Key;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * kid(key id) -> 서명 키 목록.
+ * 토큰 헤더의 kid로 키를 바로 찾기 때문에 키가 몇 개든 검증할 때 키를 하나씩 대입해 보지 않는다.
+ *
+ * jwt.secret은 kid "default" 키이고, kid가 없는 (키 교체 전에 발급된) 토큰도 이 키로 검증한다.
+ * jwt.keyring.default-not-after를 지정하면 그 시각 이후로 kid 없는 토큰은 거절하고,
+ * 파일의 키가 active가 된 뒤라면 default 키도 다른 키처럼 목록에서 빠진다.
+ * jwt.keyring.path 파일(properties)에 키를 추가하면 재시작 없이 reload-interval-ms 마다 다시 읽는다.
+ *
+ * active=2026-10                                    서명에 쓸 kid
+ * keys.2026-10=base64 시크릿 (64byte 이상)
+ * keys.2026-09=base64 시크릿
+ * keys.2026-09.not-after=2026-11-01T00:00:00Z       이 시각이 지나면 검증에서도 빠진다.
+ */
+@Slf4j
+@Component
+public class JwtKeyRing {
+
+    public static final String DEFAULT_KID = "default";
+    //HS512는 64byte 이상의 키가 필요하다.
+    private static final int MIN_KEY_BYTES = 64;
+
+    private final SigningKey defaultKey;
+    private final Path path;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SigningKeyResolver resolver = new SigningKeyResolverAdapter() {
+        @Override
+        public Key resolveSigningKey(JwsHeader header, Claims claims) {
+            return resolve(header.getKeyId()).key();
+        }
+    };
+    //불변 스냅샷을 통째로 바꿔 끼운다. 읽는 쪽은 락 없이 volatile 읽기 한 번
+    private volatile Snapshot snapshot;
+    private long loadedModified = -1L;
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    public JwtKeyRing(@Value("${jwt.secret}") String secret,
+                      @Value("${jwt.keyring.default-not-after:}") String defaultNotAfter,
+                      @Value("${jwt.keyring.path:}") String path,
+                      ApplicationEventPublisher eventPublisher) {
+        //base64로 인코딩된 시크릿 값을 디코딩하여 HMAC-SHA 알고리즘에 사용할 수 있는 비밀 키로 변환
+        this.defaultKey = new SigningKey(DEFAULT_KID, Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret)),
+                notAfter(defaultNotAfter, DEFAULT_KID));
+        this.path = StringUtils.hasText(path) ? Path.of(path) : null;
+        this.eventPublisher = eventPublisher;
+        this.snapshot = new Snapshot(Map.of(DEFAULT_KID, defaultKey), defaultKey);
+        reload();
+    }
+
+    // 새 토큰 서명에 쓸 키
+    public SigningKey active() {
+        return snapshot.active();
+    }
+
+    public SigningKey defaultKey() {
+        return defaultKey;
+    }
+
+    // kid로 검증 키 조회. kid가 없으면 default 키, 모르는 kid거나 폐기 시각이 지났으면 서명 오류
+    // (서명에 쓰고 있는 active 키는 폐기 시각이 지나도 새 active가 지정될 때까지 유효)
+    public SigningKey resolve(String kid) {
+        if (kid == null) {
+            //kid 없는 토큰은 default 키가 active여도 default-not-after까지만 받는다.
+            if (isExpiredWithoutKid(System.currentTimeMillis())) {
+                throw new SignatureException("kid가 없는 토큰은 더 이상 받지 않습니다.");
+            }
+            return defaultKey;
+        }
+        Snapshot current = snapshot;
+        SigningKey signingKey = current.keys().get(kid);
+        if (signingKey == null || (signingKey.notAfter() < System.currentTimeMillis() && signingKey != current.active())) {
+            throw new SignatureException("알 수 없거나 폐기된 서명 키입니다. kid=" + kid);
+        }
+        return signingKey;
+    }
+
+    public boolean isExpiredWithoutKid(long now) {
+        return defaultKey.notAfter() < now;
+    }
+
+    public SigningKeyResolver resolver() {
+        return resolver;
+    }
+
+    // 검증 키 목록 (불변). 키가 바뀌면 다른 Map 인스턴스가 된다.
+    public Map<String, SigningKey> keys() {
+        return snapshot.keys();
+    }
+
+    public Set<String> kids() {
+        return snapshot.keys().keySet();
+    }
+
+    // 키 파일이 바뀌었으면 다시 읽고, 폐기 시각이 지난 키는 뺀다.
+    // 파일이 잘못되어 있으면 기존 키 목록을 그대로 쓴다.
+    @Scheduled(fixedDelayString = "${jwt.keyring.reload-interval-ms:30000}")
+    public void reload() {
+        //스케줄러가 가상 쓰레드일 수 있고 안에서 파일을 읽으므로 synchronized 대신 ReentrantLock
+        reloadLock.lock();
+        try {
+            Snapshot current = snapshot;
+            Snapshot next = current;
+            try {
+                if (path != null && Files.exists(path)) {
+                    long modified = Files.getLastModifiedTime(path).toMillis();
+                    if (modified != loadedModified) {
+                        next = load();
+                        loadedModified = modified;
+                    }
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                log.warn("서명 키 파일을 읽지 못해서 기존 키를 계속 사용합니다. {}", e.getMessage());
+            }
+            next = retireExpired(next, System.currentTimeMillis());
+            if (next == current) return;
+
+            snapshot = next;
+            Set<String> removed = new HashSet<>(current.keys().keySet());
+            removed.removeAll(next.keys().keySet());
+            log.info("서명 키 교체 active={}, kids={}, removed={}", next.active().kid(), next.keys().keySet(), removed);
+            if (!removed.isEmpty()) {
+                eventPublisher.publishEvent(new JwtKeysRemovedEvent(Set.copyOf(removed)));
+            }
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private Snapshot load() throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        Map<String, SigningKey> keys = new HashMap<>();
+        keys.put(DEFAULT_KID, defaultKey);
+        for (String name : properties.stringPropertyNames()) {
+            if (!name.startsWith("keys.") || name.endsWith(".not-after")) continue;
+            String kid = name.substring("keys.".length());
+            byte[] keyBytes = Decoders.BASE64.decode(properties.getProperty(name).trim());
+            if (keyBytes.length < MIN_KEY_BYTES) {
+                throw new IllegalArgumentException("서명 키는 " + MIN_KEY_BYTES + "byte 이상이어야 합니다. kid=" + kid);
+            }
+            keys.put(kid, new SigningKey(kid, Keys.hmacShaKeyFor(keyBytes), notAfter(properties.getProperty(name + ".not-after"), kid)));
+        }
+        String activeKid = properties.getProperty("active", DEFAULT_KID).trim();
+        SigningKey active = keys.get(activeKid);
+        if (active == null) {
+            throw new IllegalArgumentException("active kid에 해당하는 키가 없습니다. active=" + activeKid);
+        }
+        return new Snapshot(Map.copyOf(keys), active);
+    }
+
+    private Snapshot retireExpired(Snapshot snapshot, long now) {
+        boolean expired = false;
+        for (SigningKey signingKey : snapshot.keys().values()) {
+            if (signingKey.notAfter() < now && signingKey != snapshot.active()) {
+                expired = true;
+                break;
+            }
+        }
+        if (!expired) return snapshot;
+        Map<String, SigningKey> keys = new HashMap<>();
+        for (SigningKey signingKey : snapshot.keys().values()) {
+            //서명에 쓰는 키는 폐기 시각이 지나도 빼지 않는다. (새 active 지정이 먼저)
+            if (signingKey.notAfter() >= now || signingKey == snapshot.active()) {
+                keys.put(signingKey.kid(), signingKey);
+            } else {
+                log.info("폐기 시각이 지난 서명 키 제거 kid={}", signingKey.kid());
+            }
+        }
+        return new Snapshot(Map.copyOf(keys), snapshot.active());
+    }
+
+    private static long notAfter(String value, String kid) {
+        if (!StringUtils.hasText(value)) return Long.MAX_VALUE;
+        try {
+            return Instant.parse(value.trim()).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("not-after 형식이 잘못되었습니다. kid=" + kid, e);
+        }
+    }
+
+    // notAfter : 폐기 시각(epoch millis), 없으면 Long.MAX_VALUE
+    public record SigningKey(String kid, Key key, long notAfter) {
+    }
+
+    private record Snapshot(Map<String, SigningKey> keys, SigningKey active) {
+    }
+}
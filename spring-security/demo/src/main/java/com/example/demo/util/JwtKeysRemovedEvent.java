@@ -0,0 +1,7 @@
+package com.example.demo.util;
+
+import java.util.Set;
+
+// JwtKeyRing에서 키가 빠졌을 때(폐기/만료) 발행. 그 키로 서명된 토큰의 검증 결과를 더 이상 쓰면 안 된다.
+public record JwtKeysRemovedEvent(Set<String> kids) {
+}
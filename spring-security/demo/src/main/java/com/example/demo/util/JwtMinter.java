@@ -0,0 +1,263 @@
+package com.example.demo.util;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+
+import javax.crypto.Mac;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * 우리가 발급하는 두 종류 토큰(access, refresh)만 만드는 JWS(HMAC) 서명기.
+ * Jwts.builder()는 토큰마다 헤더/claims map을 만들고 Jackson으로 직렬화한 뒤 Base64URL 인코딩, Mac 생성과 초기화를 한다.
+ * 여기서는 claim 목록이 고정이라
+ * - 헤더({"kid":..,"alg":..})는 서명 키마다 한 번만 인코딩해 두고
+ * - claims JSON은 map 없이 바이트 버퍼에 바로 쓰고
+ * - 키로 초기화된 Mac과 버퍼는 쓰레드마다 재사용한다.
+ *
+ * 결과는 jjwt가 만드는 것과 같은 형식(헤더/claim 순서, 초 단위 iat/exp)이라 jjwt 파서로 그대로 검증된다. (JwtMinterTest)
+ */
+public final class JwtMinter {
+
+    private static final String AUTHORITIES_KEY = "role";
+    private static final String AUTH_TIME_KEY = "auth_time";
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private final ThreadScratch<Scratch> scratches = new ThreadScratch<>(Scratch::new);
+    //마지막으로 쓴 서명 키의 준비 결과. 키 교체는 드물어서 하나만 둔다.
+    private volatile Prepared prepared;
+
+    // access token : {"role":..,"sub":..,"iat":..,"auth_time":..,"exp":..}, HS512
+    public String accessToken(JwtKeyRing.SigningKey signingKey, String username, String authorities,
+                              long issuedAtSeconds, long authTimeSeconds, long expiresAtSeconds) {
+        Prepared keyState = prepare(signingKey);
+        Scratch scratch = scratches.get();
+        JsonWriter json = scratch.json.reset();
+        json.open(AUTHORITIES_KEY).string(authorities);
+        json.next("sub").string(username);
+        json.next("iat").number(issuedAtSeconds);
+        json.next(AUTH_TIME_KEY).number(authTimeSeconds);
+        json.next("exp").number(expiresAtSeconds).close();
+        return sign(scratch, keyState.accessHeader, keyState.accessSigner, json);
+    }
+
+    // refresh token : {"sub":..,"jti":..,"iat":..,"exp":..}, 키 길이에 맞는 HMAC (Jwts.builder().signWith(key)와 같음)
+    public String refreshToken(JwtKeyRing.SigningKey signingKey, String username, long jti,
+                               long issuedAtSeconds, long expiresAtSeconds) {
+        Prepared keyState = prepare(signingKey);
+        Scratch scratch = scratches.get();
+        JsonWriter json = scratch.json.reset();
+        json.open("sub").string(username);
+        json.next("jti").hex(jti);
+        json.next("iat").number(issuedAtSeconds);
+        json.next("exp").number(expiresAtSeconds).close();
+        return sign(scratch, keyState.refreshHeader, keyState.refreshSigner, json);
+    }
+
+    private Prepared prepare(JwtKeyRing.SigningKey signingKey) {
+        Prepared current = prepared;
+        if (current != null && current.signingKey == signingKey) return current;
+        current = new Prepared(signingKey);
+        prepared = current;
+        return current;
+    }
+
+    // <header>.<payload>.<signature>
+    private static String sign(Scratch scratch, byte[] header, HmacSigner signer, JsonWriter json) {
+        byte[] out = scratch.out(header.length + 1 + Base64Url.encodedLength(json.length) + 1 + Base64Url.encodedLength(signer.macLength()));
+        System.arraycopy(header, 0, out, 0, header.length);
+        int position = header.length;
+        out[position++] = '.';
+        position = Base64Url.encode(json.buffer, json.length, out, position);
+
+        Mac mac = scratch.mac(signer);
+        mac.update(out, 0, position);
+        byte[] signature = scratch.signature;
+        try {
+            mac.doFinal(signature, 0);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+        out[position++] = '.';
+        position = Base64Url.encode(signature, signer.macLength(), out, position);
+        //Base64URL은 ASCII뿐이라 LATIN1로 만들면 바이트 배열을 그대로 복사한다.
+        return new String(out, 0, position, StandardCharsets.ISO_8859_1);
+    }
+
+    // {"kid":..,"alg":..}, kid가 null이면 {"alg":..} (kid 없이 발급된 예전 토큰)
+    static byte[] encodedHeader(String kid, SignatureAlgorithm algorithm) {
+        JsonWriter json = new JsonWriter();
+        if (kid == null) {
+            json.open("alg").string(algorithm.getValue()).close();
+        } else {
+            json.open("kid").string(kid);
+            json.next("alg").string(algorithm.getValue()).close();
+        }
+        byte[] encoded = new byte[Base64Url.encodedLength(json.length)];
+        Base64Url.encode(json.buffer, json.length, encoded, 0);
+        return encoded;
+    }
+
+    // 서명 키 하나에 대해 미리 만들어 두는 값
+    private static final class Prepared {
+        private final JwtKeyRing.SigningKey signingKey;
+        private final byte[] accessHeader;
+        private final HmacSigner accessSigner;
+        private final byte[] refreshHeader;
+        private final HmacSigner refreshSigner;
+
+        private Prepared(JwtKeyRing.SigningKey signingKey) {
+            this.signingKey = signingKey;
+            Key key = signingKey.key();
+            //Jwts.builder().signWith(key, HS512)와 같이 키가 짧으면 WeakKeyException
+            SignatureAlgorithm.HS512.assertValidSigningKey(key);
+            this.accessHeader = encodedHeader(signingKey.kid(), SignatureAlgorithm.HS512);
+            this.accessSigner = new HmacSigner(key, SignatureAlgorithm.HS512);
+            SignatureAlgorithm refreshAlgorithm = SignatureAlgorithm.forSigningKey(key);
+            this.refreshHeader = encodedHeader(signingKey.kid(), refreshAlgorithm);
+            this.refreshSigner = refreshAlgorithm == SignatureAlgorithm.HS512 ? accessSigner : new HmacSigner(key, refreshAlgorithm);
+        }
+    }
+
+    // 쓰레드별 작업 공간
+    private static final class Scratch {
+        private final JsonWriter json = new JsonWriter();
+        //HS512 서명 길이
+        private final byte[] signature = new byte[64];
+        private byte[] out = new byte[512];
+        private HmacSigner signer;
+        private Mac mac;
+
+        private byte[] out(int length) {
+            if (out.length < length) {
+                out = new byte[Math.max(length, out.length * 2)];
+            }
+            return out;
+        }
+
+        private Mac mac(HmacSigner next) {
+            if (signer != next) {
+                mac = next.newMac();
+                signer = next;
+            }
+            return mac;
+        }
+    }
+
+    // claims/헤더 JSON을 UTF-8 바이트로 바로 쓴다. 문자열은 JSON 규칙대로 escape
+    private static final class JsonWriter {
+        private byte[] buffer = new byte[256];
+        private int length;
+
+        private JsonWriter reset() {
+            length = 0;
+            return this;
+        }
+
+        private JsonWriter open(String name) {
+            put('{');
+            return name(name);
+        }
+
+        private JsonWriter next(String name) {
+            put(',');
+            return name(name);
+        }
+
+        private void close() {
+            put('}');
+        }
+
+        private JsonWriter name(String name) {
+            string(name);
+            put(':');
+            return this;
+        }
+
+        private JsonWriter number(long value) {
+            if (value == Long.MIN_VALUE) {
+                ascii(Long.toString(value));
+                return this;
+            }
+            if (value < 0) {
+                put('-');
+                value = -value;
+            }
+            int digits = 1;
+            for (long rest = value / 10; rest != 0; rest /= 10) digits++;
+            ensure(digits);
+            for (int i = length + digits - 1; i >= length; i--) {
+                buffer[i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            length += digits;
+            return this;
+        }
+
+        // Long.toHexString과 같은 값 (앞의 0 없음)
+        private JsonWriter hex(long value) {
+            int digits = Math.max(1, (64 - Long.numberOfLeadingZeros(value) + 3) / 4);
+            ensure(digits + 2);
+            buffer[length++] = '"';
+            for (int shift = (digits - 1) * 4; shift >= 0; shift -= 4) {
+                buffer[length++] = HEX[(int) (value >>> shift) & 0xf];
+            }
+            buffer[length++] = '"';
+            return this;
+        }
+
+        private JsonWriter string(String value) {
+            Objects.requireNonNull(value, "claim 값이 없습니다.");
+            put('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    put('\\');
+                    put(c);
+                } else if (c < 0x20) {
+                    ascii("\\u00");
+                    put(HEX[c >> 4]);
+                    put(HEX[c & 0xf]);
+                } else if (c < 0x80) {
+                    put(c);
+                } else if (c < 0x800) {
+                    put(0xc0 | c >> 6);
+                    put(0x80 | c & 0x3f);
+                } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    put(0xf0 | codePoint >> 18);
+                    put(0x80 | (codePoint >> 12) & 0x3f);
+                    put(0x80 | (codePoint >> 6) & 0x3f);
+                    put(0x80 | codePoint & 0x3f);
+                } else if (Character.isSurrogate(c)) {
+                    //짝이 없는 surrogate는 String.getBytes(UTF_8)처럼 '?'로 쓴다.
+                    put('?');
+                } else {
+                    put(0xe0 | c >> 12);
+                    put(0x80 | (c >> 6) & 0x3f);
+                    put(0x80 | c & 0x3f);
+                }
+            }
+            put('"');
+            return this;
+        }
+
+        private void ascii(String value) {
+            for (int i = 0; i < value.length(); i++) put(value.charAt(i));
+        }
+
+        private void put(int b) {
+            ensure(1);
+            buffer[length++] = (byte) b;
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(length + extra, buffer.length * 2));
+            }
+        }
+    }
+}
@@ -1,20 +1,17 @@
 package com.example.demo.util;
 
 import com.example.demo.dto.JwtToken;
+import com.example.demo.dto.VerifiedToken;
+import com.example.demo.dto.VerifiedToken.FailureReason;
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.Getter;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
@@ -22,10 +19,8 @@ import org.springframework.util.StringUtils;
 import java.security.Key;
 import java.time.LocalDateTime;
 import java.time.ZonedDateTime;
-import java.util.Arrays;
-import java.util.Collection;
 import java.util.Date;
-import java.util.stream.Collectors;
+import java.util.concurrent.ThreadLocalRandom;
 
 // 참고 https://sjh9708.tistory.com/170
 // 참고 2 https://ironmask43.tistory.com/92
@@ -37,12 +32,16 @@ import java.util.stream.Collectors;
 //토큰이 전달할 사용자 정보를 포함. 일반적으로 클레임은 사용자의 식별자, 권한 정보, 토큰의 만료 시간 등을 포함합니다.
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class JwtTokenProvider implements InitializingBean {
     private static final String BEARER_TYPE = "Bearer";
     private static final String BEARER_PREFIX = "Bearer";
     private static final String AUTHORIZATION_HEADER = "Authorization";
     private static final String REFRESH_HEADER = "Refresh";
     private static final String AUTHORITIES_KEY = "role";
+    private static final String AUTH_TIME_KEY = "auth_time";
+    //검증/인증 객체 생성은 요청마다 실행되므로 debug 로그는 일부만 남긴다. 거절된 토큰은 감사 로그(AuthAuditLog)에 남는다.
+    private static final LogSampler DEBUG = LogSampler.debug(log);
 
     @Getter
     @Value("${jwt.secret}")
@@ -55,39 +54,52 @@ public class JwtTokenProvider implements InitializingBean {
     @Getter
     @Value("${jwt.refresh-token-validity-in-seconds}")
     public long refreshTokenExpTime;
+    //jwt.secret으로 만든 기본 키
     public Key key;
+    private final JwtKeyRing jwtKeyRing;
+    //JwtParser는 불변이고 thread-safe 하므로 한 번만 만들어서 재사용한다.
+    private JwtParser jwtParser;
+    private final JwtMinter jwtMinter = new JwtMinter();
+    //우리가 발급한 형식의 토큰은 jjwt 파서 없이 검증한다.
+    private JwtVerifier jwtVerifier;
 
 
     @Override
     public void afterPropertiesSet() throws Exception {
         //TokenProvider bean 생성 후 sercret 값을 이용해 암호화 키 생성
-        //base64로 인코딩된 시크릿 값을 디코딩하여 바이트 배열로 변환
-        //jwt 시크립 값은 일반적으로 Base64되어 있어 보통 디코딩하여 바이트 배열로 변환하는 과정이 필요하다.
-        byte[] keyBytes = Decoders.BASE64.decode(secret);
-        //시크릿 값을 HMAC_SHA 알고리즘에 사용할 수 있는 비밀 키로 변환
+        //시크릿 값을 HMAC_SHA 알고리즘에 사용할 수 있는 비밀 키로 변환하는 일은 JwtKeyRing이 한다. (jwt.secret -> kid "default")
         //HMAC-SHA 알고리즘은 JWT 서명(signature)을 생성하거나 검증하는데 사용된다.
-        //따라서 jwt의 시크릿 값을 이용하여 HMAC-SHA에 사용할 수 있는 키로 변화하는 과정이 필요하다.
-        this.key = Keys.hmacShaKeyFor(keyBytes);
+        this.key = jwtKeyRing.defaultKey().key();
+        //어떤 알고리즘 쓰는지는 이미 JWT 토큰에 포함되어 있어서 별도로 지정할 필요가 없음
+        //검증 키는 토큰 헤더의 kid로 JwtKeyRing에서 바로 찾는다.
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKeyResolver(jwtKeyRing.resolver())
+                .build();
+        this.jwtVerifier = new JwtVerifier(jwtKeyRing);
     }
 
     //Authentication 객체를 받아서 토큰 생성, 반환
     public JwtToken createToken(UserDetails userDetails) {
-        String authorities = userDetails.getAuthorities().stream()
-                .map(GrantedAuthority::getAuthority)
-                .collect(Collectors.joining(","));
+        return createToken(userDetails, System.currentTimeMillis() / 1000);
+    }
+
+    //issuedAt : iat(epoch seconds). 로그아웃 epoch 이후로 맞춘 값을 넘긴다. (RevocationEpochs.issuedAt)
+    public JwtToken createToken(UserDetails userDetails, long issuedAt) {
+        //권한 조합별로 미리 만들어 둔 claim 문자열을 그대로 쓴다.
+        String authorities = AuthorityRegistry.ofAuthorities(userDetails.getAuthorities()).getClaim();
+
+        //서명 키는 토큰 하나 안에서 같은 것을 써야 하므로 한 번만 읽는다.
+        JwtKeyRing.SigningKey signingKey = jwtKeyRing.active();
 
         //토큰 유효시간 설정
+        Date issuedAtDate = new Date(issuedAt * 1000);
         Date accessTokenExpiresIn = getTokenExpiration(accessTokenExpTime);
         Date refreshTokenExpiresIn = getTokenExpiration(refreshTokenExpTime);
 
 
         //jwt 토큰 생성, 리턴
-        String accessToken =  Jwts.builder()
-                .claim(AUTHORITIES_KEY, authorities)
-                .setSubject(userDetails.getUsername())
-                .signWith(key, SignatureAlgorithm.HS512)
-                .setExpiration(accessTokenExpiresIn)
-                .compact();
+        //로그인이라서 auth_time은 iat와 같다.
+        String accessToken = signAccessToken(userDetails.getUsername(), authorities, signingKey, issuedAtDate, issuedAt, accessTokenExpiresIn);
 // refresh token 참고 https://suddiyo.tistory.com/entry/Spring-Spring-Security-JWT-%EB%A1%9C%EA%B7%B8%EC%9D%B8-%EA%B5%AC%ED%98%84%ED%95%98%EA%B8%B0-2
         // setClaimms() : jwt에 포함시킬 Custom Claims를 추가한다. Custom Claims는 주로 인증된 사용자 정보를 넣는다.
         // setSubject() : jwt에 대한 제목을 넣는다.
@@ -95,12 +107,7 @@ public class JwtTokenProvider implements InitializingBean {
         // setExpiration() : jwt의 만료기한을 지정한다. 파라미터 타입은 java.util.Date 타입이다.
         // signWith() :  서명을 위한 Key(java.security.Key) 객체를 설정한다.
         // compact() : jwt를 생성하고 직렬화한다.
-        String refreshToken = Jwts.builder()
-                .setSubject(userDetails.getUsername())
-                .setExpiration(refreshTokenExpiresIn)
-                //민감한게 아니라서 HS256 생략
-                .signWith(key)
-                .compact();
+        String refreshToken = signRefreshToken(userDetails.getUsername(), signingKey, issuedAtDate, refreshTokenExpiresIn);
 
         return JwtToken.builder()
                 .grantType(BEARER_TYPE)
@@ -111,60 +118,108 @@ public class JwtTokenProvider implements InitializingBean {
                 .build();
     }
 
+    // 재발급/갱신용. access token 하나만 서명한다. (refresh token을 같이 만들었다가 버리지 않는다)
+    // authTime : 처음 로그인한 시각(epoch seconds). 재발급은 refresh token의 iat, 갱신은 지금 토큰의 auth_time을 넘긴다.
+    public String createAccessToken(String username, RoleSet roleSet, long issuedAt, long authTime) {
+        return signAccessToken(username, roleSet.getClaim(), jwtKeyRing.active(),
+                new Date(issuedAt * 1000), authTime, getTokenExpiration(accessTokenExpTime));
+    }
+
+    // refresh token 교체(rotation)용
+    public String createRefreshToken(String username, long issuedAt) {
+        return signRefreshToken(username, jwtKeyRing.active(), new Date(issuedAt * 1000), getTokenExpiration(refreshTokenExpTime));
+    }
+
+    //Jwts.builder()와 같은 형식의 토큰을 만든다. 헤더 인코딩, Mac 초기화를 매번 하지 않는다. (JwtMinter)
+    private String signAccessToken(String username, String authorities, JwtKeyRing.SigningKey signingKey, Date issuedAt,
+                                   long authTime, Date expiresIn) {
+        return jwtMinter.accessToken(signingKey, username, authorities, issuedAt.getTime() / 1000, authTime, expiresIn.getTime() / 1000);
+    }
+
+    private String signRefreshToken(String username, JwtKeyRing.SigningKey signingKey, Date issuedAt, Date expiresIn) {
+        //같은 초에 교체(rotation)해도 이전 refresh token과 다른 값이 되도록 jti를 넣는다.
+        //민감한게 아니라서 HS256 생략 (키 길이에 맞는 알고리즘)
+        return jwtMinter.refreshToken(signingKey, username, ThreadLocalRandom.current().nextLong(),
+                issuedAt.getTime() / 1000, expiresIn.getTime() / 1000);
+    }
+
     // 토큰을 복호화하여 토큰에 들어있는 정보를 꺼내는 메서드
     public Authentication getAuthentication(String token) {
+        VerifiedToken verifiedToken = verify(token);
+        if(!verifiedToken.isValid()) {
+            throw new RuntimeException("유효하지 않은 토큰입니다. " + verifiedToken.getFailureReason());
+        }
+        return getAuthentication(verifiedToken, token);
+    }
 
-        Claims claims = parseClaims(token);
-
-        if(claims.get(AUTHORITIES_KEY) == null) {
+    // 이미 검증된 토큰으로 Authentication 생성 (같은 토큰을 두 번 파싱하지 않기 위해 사용)
+    public Authentication getAuthentication(VerifiedToken verifiedToken, String token) {
+        if(verifiedToken.getRoleSet().isEmpty()) {
             throw new RuntimeException("권한 정보가 없는 토큰입니다.");
         }
-
-        //권한 추출
-        Collection<? extends GrantedAuthority> authorities =
-                Arrays.stream(claims.get(AUTHORITIES_KEY).toString().split(","))
-                        //각 권한 문자열을 SimpleGrantedAuthority 객체로 매핑
-                        //simpleGrantedAuthority Spring Security 사용되는 권한을 나타내는 클래스이다.
-                        //이 과정을 통해 jwt에 담겨져 있던 문자열을 가지고 spring Security 사용할 수 있게 됨
-                        .map(SimpleGrantedAuthority::new)
-                        .collect(Collectors.toList());
         //UserDetails 객체를 만들어서 Authentication return
-        //UserDetails: interface, User: UserDeatails를 구현한 class
-        UserDetails principal = new User(claims.getSubject(), "", authorities);
-        log.info("# AuthMember.getRoles 권한 체크 = {}", principal.getAuthorities().toString());
-        return new UsernamePasswordAuthenticationToken(principal, token, authorities);
+        //User + UsernamePasswordAuthenticationToken은 권한 목록을 정렬/복사하므로 공유 RoleSet을 그대로 쓰는 불변 구현을 사용
+        JwtPrincipal principal = new JwtPrincipal(verifiedToken.getSubject(), verifiedToken.getRoleSet());
+        if(DEBUG.sample()) log.debug("# AuthMember.getRoles 권한 체크 = {}", principal.roleSet());
+        return new JwtAuthentication(principal, token, verifiedToken.getIssuedAt(),
+                verifiedToken.getAuthTime(), verifiedToken.getExpiresAt());
     }
 
     // 토큰의 유효성 검사
     public boolean validateToken(String token) {
-        try{
-            parseClaims(token);
-            return true;
-        } catch (io.jsonwebtoken.security.SecurityException | MalformedJwtException e) {
-            log.info("잘못된 JWT 서명입니다.");
+        return verify(token).isValid();
+    }
+
+    // 서명 검증과 claims 파싱을 한 번에 하고 결과를 VerifiedToken으로 돌려준다.
+    // 실패해도 예외를 던지지 않고 실패 이유를 담아서 반환
+    public VerifiedToken verify(String token) {
+        if(!StringUtils.hasText(token)) {
+            return VerifiedToken.failed(FailureReason.EMPTY);
+        }
+        //잘못된 토큰이 몰려와도 예외 생성이나 로그 없이 실패 이유만 돌려준다.
+        VerifiedToken verifiedToken = jwtVerifier.verify(token);
+        if(verifiedToken != null) {
+            if(!verifiedToken.isValid() && DEBUG.sample()) log.debug("JWT 검증 실패 : {}", verifiedToken.getFailureReason());
+            return verifiedToken;
+        }
+        //우리가 만든 형식이 아닌 토큰은 jjwt로 검증
+        try {
+            Claims claims = parseClaims(token);
+            Date issuedAt = claims.getIssuedAt();
+            Date expiration = claims.getExpiration();
+            return VerifiedToken.valid(claims.getSubject(), parseAuthorities(claims),
+                    issuedAt == null ? 0L : issuedAt.getTime() / 1000,
+                    claims.get(AUTH_TIME_KEY) instanceof Number authTime ? authTime.longValue() : 0L,
+                    expiration == null ? 0L : expiration.getTime());
         } catch (ExpiredJwtException e) {
-            log.info("만료된 JWT 서명입니다.");
-        } catch (IllegalArgumentException e) {
-            log.info("JWT 토큰이 잘못되었습니다.");
+            if(DEBUG.sample()) log.debug("만료된 JWT 서명입니다.");
+            return VerifiedToken.failed(FailureReason.EXPIRED);
+        } catch (io.jsonwebtoken.security.SecurityException e) {
+            if(DEBUG.sample()) log.debug("잘못된 JWT 서명입니다.");
+            return VerifiedToken.failed(FailureReason.BAD_SIGNATURE);
+        } catch (UnsupportedJwtException e) {
+            if(DEBUG.sample()) log.debug("지원되지 않는 JWT 토큰입니다.");
+            return VerifiedToken.failed(FailureReason.UNSUPPORTED);
+        } catch (JwtException | IllegalArgumentException e) {
+            if(DEBUG.sample()) log.debug("JWT 토큰이 잘못되었습니다.");
+            return VerifiedToken.failed(FailureReason.MALFORMED);
         }
-        return false;
     }
 
     //token을 복호화
     public Claims parseClaims(String token) {
-        return  //jwt 파싱 및 검증
-                //Jwts.parserBuilder().setSigningKey(key).build()을 사용하여 JWT 파서를 빌드합니다.
-                //여기서 key는 JWT의 서명을 검증하는 데 사용되는 시크릿 키입니다.
-                Jwts
-                .parserBuilder()
-                //어떤 알고리즘 쓰는지는 이미 JWT 토큰에 포함되어 있어서 별도로 지정할 필요가 없음
-                .setSigningKey(key)
-                .build()
-                //parseClaimsJws(token)을 호출하여 주어진 JWT 토큰을 파싱하고 검증합니다.
-                //이 때, JWT의 서명이 유효한지 확인하고, 토큰의 내용을 추출합니다.
-                .parseClaimsJws(token)
-                //getBody()를 호출하여 JWT의 본문(Claims)을 가져옵니다.
-                .getBody();
+        //parseClaimsJws(token)을 호출하여 주어진 JWT 토큰을 파싱하고 검증합니다.
+        //이 때, JWT의 서명이 유효한지 확인하고, 토큰의 내용을 추출합니다.
+        //getBody()를 호출하여 JWT의 본문(Claims)을 가져옵니다.
+        return jwtParser.parseClaimsJws(token).getBody();
+    }
+
+    //권한 추출, refresh token처럼 권한 claim이 없으면 빈 RoleSet
+    //claim 문자열 -> RoleSet은 AuthorityRegistry에 캐시되어 있어서 split이나 SimpleGrantedAuthority 생성이 없다.
+    private RoleSet parseAuthorities(Claims claims) {
+        Object role = claims.get(AUTHORITIES_KEY);
+        if(role == null) return AuthorityRegistry.EMPTY;
+        return AuthorityRegistry.parseClaim(role.toString());
     }
 
     public void accessTokenSetHeader(String accessToken, HttpServletResponse response) {
@@ -188,7 +243,7 @@ public class JwtTokenProvider implements InitializingBean {
     public String resolveRefreshToken(HttpServletRequest request) {
         String bearerToken = request.getHeader(REFRESH_HEADER);
         if(StringUtils.hasText(bearerToken)) return bearerToken;
-        else log.info("refresh 토큰이 없음");
+        else if(DEBUG.sample()) log.debug("refresh 토큰이 없음");
         return null;
     }
 
@@ -0,0 +1,395 @@
+package com.example.demo.util;
+
+import com.example.demo.dto.VerifiedToken;
+import com.example.demo.dto.VerifiedToken.FailureReason;
+import io.jsonwebtoken.SignatureAlgorithm;
+
+import javax.crypto.Mac;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 요청 경로용 JWS(HMAC) 검증기. 우리가 발급한 형식의 토큰(JwtMinter)만 직접 검증하고 나머지는 jjwt에 맡긴다.
+ *
+ * jjwt 파서는 토큰을 문자열로 디코딩하고 Jackson으로 Claims map을 만들고, 실패하면 예외를 만든다.
+ * 여기서는
+ * - 토큰을 자르지 않고 '.' 위치만 찾아서 쓰레드별 바이트 버퍼 위에서 디코딩하고
+ * - 헤더는 키마다 미리 인코딩해 둔 값과 그대로 비교해서 kid/alg를 JSON 파싱 없이 정하고
+ * - 쓰레드별 Mac으로 서명을 확인한 뒤 claims에서 sub, role, iat, auth_time, exp만 꺼낸다.
+ * 실패는 예외 대신 VerifiedToken.failed(이유별로 하나씩만 있는 객체)로 돌려주므로 잘못된 토큰을 대량으로 보내도 할당이 거의 없다.
+ *
+ * 우리가 만든 헤더가 아니거나(다른 발급자, 필드 순서가 다른 헤더), claims에 처리하지 않는 값(nbf, 중첩 객체 등)이 있으면
+ * null을 돌려주고 호출한 쪽(JwtTokenProvider)이 jjwt로 다시 검증한다.
+ */
+public final class JwtVerifier {
+
+    private static final long NOT_PRESENT = Long.MIN_VALUE;
+
+    private final JwtKeyRing jwtKeyRing;
+    private final ThreadScratch<Scratch> scratches = new ThreadScratch<>(Scratch::new);
+    //JwtKeyRing 키 목록이 바뀌면 다시 만든다.
+    private volatile Headers headers;
+    //role claim 바이트 -> RoleSet. claim 문자열을 만들지 않고 비교한다. 종류가 많지 않아서 배열로 충분
+    private volatile RoleClaim[] roleClaims = new RoleClaim[0];
+    private static final int MAX_ROLE_CLAIMS = 64;
+
+    public JwtVerifier(JwtKeyRing jwtKeyRing) {
+        this.jwtKeyRing = jwtKeyRing;
+    }
+
+    // 검증 결과, jjwt로 다시 검증해야 하면 null
+    public VerifiedToken verify(String token) {
+        int length = token.length();
+        int firstDot = token.indexOf('.');
+        int secondDot = firstDot < 0 ? -1 : token.indexOf('.', firstDot + 1);
+        //jjwt도 '.'이 정확히 2개가 아니면 MalformedJwtException
+        if (secondDot < 0 || token.indexOf('.', secondDot + 1) >= 0) {
+            return VerifiedToken.failed(FailureReason.MALFORMED);
+        }
+        Scratch scratch = scratches.get();
+        byte[] input = scratch.input(length);
+        for (int i = 0; i < length; i++) {
+            char c = token.charAt(i);
+            if (c != '.' && !Base64Url.isAlphabet(c)) {
+                return VerifiedToken.failed(FailureReason.MALFORMED);
+            }
+            input[i] = (byte) c;
+        }
+
+        Header header = headers().find(input, firstDot);
+        if (header == null) {
+            //헤더가 JSON 객체로도 읽히지 않으면 jjwt도 실패한다.
+            int headerLength = Base64Url.decode(input, 0, firstDot, scratch.decoded(Base64Url.decodedLength(firstDot)));
+            return headerLength < 0 || !FlatJson.isObject(scratch.decoded, headerLength)
+                    ? VerifiedToken.failed(FailureReason.MALFORMED) : null;
+        }
+        JwtKeyRing.SigningKey signingKey = header.signingKey();
+        //JwtKeyRing.resolve와 같은 규칙. 폐기 시각이 지난 키는 (active가 아니면) 서명 오류, kid 없는 토큰은 active여도 서명 오류
+        long now = System.currentTimeMillis();
+        if (header.withoutKid() ? jwtKeyRing.isExpiredWithoutKid(now)
+                : signingKey.notAfter() < now && signingKey != jwtKeyRing.active()) {
+            return VerifiedToken.failed(FailureReason.BAD_SIGNATURE);
+        }
+
+        //서명 확인 (signing input = header.payload 의 ASCII 바이트)
+        int macLength = header.signer().macLength();
+        if (Base64Url.decodedLength(length - secondDot - 1) != macLength) {
+            return VerifiedToken.failed(FailureReason.BAD_SIGNATURE);
+        }
+        Base64Url.decode(input, secondDot + 1, length, scratch.signature);
+        Mac mac = scratch.mac(header.signer());
+        mac.update(input, 0, secondDot);
+        try {
+            mac.doFinal(scratch.computed, 0);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+        if (!constantTimeEquals(scratch.signature, scratch.computed, macLength)) {
+            return VerifiedToken.failed(FailureReason.BAD_SIGNATURE);
+        }
+
+        int payloadLength = Base64Url.decode(input, firstDot + 1, secondDot,
+                scratch.decoded(Base64Url.decodedLength(secondDot - firstDot - 1)));
+        if (payloadLength < 0) {
+            return VerifiedToken.failed(FailureReason.MALFORMED);
+        }
+        return claims(scratch, payloadLength);
+    }
+
+    //MessageDigest.isEqual처럼 끝까지 비교한다. (HS256이면 버퍼 앞 32byte만 쓰므로 길이를 받는다)
+    private static boolean constantTimeEquals(byte[] a, byte[] b, int length) {
+        int diff = 0;
+        for (int i = 0; i < length; i++) {
+            diff |= a[i] ^ b[i];
+        }
+        return diff == 0;
+    }
+
+    private VerifiedToken claims(Scratch scratch, int payloadLength) {
+        FlatJson json = scratch.json.reset(scratch.decoded, payloadLength);
+        if (!json.parse()) return null;
+        long expiresAt = json.expiresAt;
+        //jjwt와 같이 만료 시각(ms)이 지났으면 만료 (허용 오차 없음)
+        if (expiresAt != NOT_PRESENT && System.currentTimeMillis() > expiresAt * 1000) {
+            return VerifiedToken.failed(FailureReason.EXPIRED);
+        }
+        String subject = json.subjectStart < 0 ? null
+                : new String(scratch.decoded, json.subjectStart, json.subjectEnd - json.subjectStart, StandardCharsets.UTF_8);
+        RoleSet roleSet = json.roleStart < 0 ? AuthorityRegistry.EMPTY : roleSet(scratch.decoded, json.roleStart, json.roleEnd);
+        return VerifiedToken.valid(subject, roleSet,
+                json.issuedAt == NOT_PRESENT ? 0L : json.issuedAt,
+                json.authTime == NOT_PRESENT ? 0L : json.authTime,
+                expiresAt == NOT_PRESENT ? 0L : expiresAt * 1000);
+    }
+
+    private RoleSet roleSet(byte[] bytes, int from, int to) {
+        RoleClaim[] current = roleClaims;
+        for (RoleClaim roleClaim : current) {
+            if (Arrays.equals(roleClaim.bytes(), 0, roleClaim.bytes().length, bytes, from, to)) {
+                return roleClaim.roleSet();
+            }
+        }
+        RoleSet roleSet = AuthorityRegistry.parseClaim(new String(bytes, from, to - from, StandardCharsets.UTF_8));
+        if (current.length < MAX_ROLE_CLAIMS) {
+            //동시에 추가되면 하나가 빠질 수 있지만 다음 요청에서 다시 추가된다.
+            RoleClaim[] next = Arrays.copyOf(current, current.length + 1);
+            next[current.length] = new RoleClaim(Arrays.copyOfRange(bytes, from, to), roleSet);
+            roleClaims = next;
+        }
+        return roleSet;
+    }
+
+    private Headers headers() {
+        Map<String, JwtKeyRing.SigningKey> keys = jwtKeyRing.keys();
+        Headers current = headers;
+        if (current != null && current.keys == keys) return current;
+        current = new Headers(keys, jwtKeyRing.defaultKey());
+        headers = current;
+        return current;
+    }
+
+    // 키 목록 하나에 대해 우리가 발급하는 헤더(Base64URL)를 모두 만들어 둔다.
+    private static final class Headers {
+        private final Map<String, JwtKeyRing.SigningKey> keys;
+        private final Header[] headers;
+
+        private Headers(Map<String, JwtKeyRing.SigningKey> keys, JwtKeyRing.SigningKey defaultKey) {
+            this.keys = keys;
+            List<Header> list = new ArrayList<>();
+            for (JwtKeyRing.SigningKey signingKey : keys.values()) {
+                add(list, signingKey.kid(), signingKey);
+            }
+            //kid 없이 발급된 토큰은 default 키로 검증
+            add(list, null, defaultKey);
+            this.headers = list.toArray(new Header[0]);
+        }
+
+        //access token은 HS512, refresh token은 키 길이에 맞는 알고리즘 (Jwts.builder().signWith(key))
+        private static void add(List<Header> list, String kid, JwtKeyRing.SigningKey signingKey) {
+            HmacSigner hs512 = null;
+            for (SignatureAlgorithm algorithm : new SignatureAlgorithm[]{SignatureAlgorithm.HS512, SignatureAlgorithm.forSigningKey(signingKey.key())}) {
+                byte[] encoded = JwtMinter.encodedHeader(kid, algorithm);
+                if (list.stream().anyMatch(header -> Arrays.equals(header.encoded(), encoded))) continue;
+                HmacSigner signer;
+                if (algorithm == SignatureAlgorithm.HS512) {
+                    if (hs512 == null) hs512 = new HmacSigner(signingKey.key(), algorithm);
+                    signer = hs512;
+                } else {
+                    signer = new HmacSigner(signingKey.key(), algorithm);
+                }
+                list.add(new Header(encoded, signingKey, signer, kid == null));
+            }
+        }
+
+        private Header find(byte[] input, int length) {
+            for (Header header : headers) {
+                if (Arrays.equals(header.encoded(), 0, header.encoded().length, input, 0, length)) {
+                    return header;
+                }
+            }
+            return null;
+        }
+    }
+
+    private record Header(byte[] encoded, JwtKeyRing.SigningKey signingKey, HmacSigner signer, boolean withoutKid) {
+    }
+
+    private record RoleClaim(byte[] bytes, RoleSet roleSet) {
+    }
+
+    // 쓰레드별 작업 공간
+    private static final class Scratch {
+        private final FlatJson json = new FlatJson();
+        //HS512 서명 길이
+        private final byte[] signature = new byte[64];
+        private final byte[] computed = new byte[64];
+        private byte[] input = new byte[512];
+        private byte[] decoded = new byte[384];
+        private HmacSigner signer;
+        private Mac mac;
+
+        private byte[] input(int length) {
+            if (input.length < length) input = new byte[Math.max(length, input.length * 2)];
+            return input;
+        }
+
+        private byte[] decoded(int length) {
+            if (decoded.length < length) decoded = new byte[Math.max(length, decoded.length * 2)];
+            return decoded;
+        }
+
+        private Mac mac(HmacSigner next) {
+            if (signer != next) {
+                mac = next.newMac();
+                signer = next;
+            }
+            return mac;
+        }
+    }
+
+    /*
+    * 한 단계짜리 JSON 객체에서 sub, role, iat, auth_time, exp 위치/값만 읽는다.
+    * 문자열 escape, 중첩 객체/배열, 소수/지수 숫자, nbf claim, 모르는 형식이 나오면 false -> jjwt로 처리
+    * */
+    private static final class FlatJson {
+        private byte[] bytes;
+        private int length;
+        private int position;
+        private int subjectStart;
+        private int subjectEnd;
+        private int roleStart;
+        private int roleEnd;
+        private long issuedAt;
+        private long authTime;
+        private long expiresAt;
+
+        private FlatJson reset(byte[] bytes, int length) {
+            this.bytes = bytes;
+            this.length = length;
+            this.position = 0;
+            this.subjectStart = -1;
+            this.roleStart = -1;
+            this.issuedAt = NOT_PRESENT;
+            this.authTime = NOT_PRESENT;
+            this.expiresAt = NOT_PRESENT;
+            return this;
+        }
+
+        // 헤더 확인용. 한 단계짜리 JSON 객체로 읽히는지만 본다.
+        private static boolean isObject(byte[] bytes, int length) {
+            return new FlatJson().reset(bytes, length).parse();
+        }
+
+        private boolean parse() {
+            skipWhitespace();
+            if (!consume('{')) return false;
+            skipWhitespace();
+            if (consume('}')) return atEnd();
+            while (true) {
+                int nameStart = position + 1;
+                if (!skipString()) return false;
+                int nameEnd = position - 1;
+                skipWhitespace();
+                if (!consume(':')) return false;
+                skipWhitespace();
+                if (!value(nameStart, nameEnd)) return false;
+                skipWhitespace();
+                if (consume(',')) {
+                    skipWhitespace();
+                    continue;
+                }
+                return consume('}') && atEnd();
+            }
+        }
+
+        private boolean value(int nameStart, int nameEnd) {
+            if (position >= length) return false;
+            byte first = bytes[position];
+            if (first == '"') {
+                int start = position + 1;
+                if (!skipString()) return false;
+                if (is(nameStart, nameEnd, "sub")) {
+                    subjectStart = start;
+                    subjectEnd = position - 1;
+                } else if (is(nameStart, nameEnd, "role")) {
+                    roleStart = start;
+                    roleEnd = position - 1;
+                } else if (is(nameStart, nameEnd, "exp") || is(nameStart, nameEnd, "iat") || is(nameStart, nameEnd, "nbf")
+                        || is(nameStart, nameEnd, "auth_time")) {
+                    return false;
+                }
+                return true;
+            }
+            if (first == '-' || (first >= '0' && first <= '9')) {
+                long number = number();
+                if (number == NOT_PRESENT) return false;
+                if (is(nameStart, nameEnd, "exp")) {
+                    expiresAt = number;
+                } else if (is(nameStart, nameEnd, "iat")) {
+                    issuedAt = number;
+                } else if (is(nameStart, nameEnd, "auth_time")) {
+                    authTime = number;
+                } else if (is(nameStart, nameEnd, "nbf") || is(nameStart, nameEnd, "sub") || is(nameStart, nameEnd, "role")) {
+                    return false;
+                }
+                return true;
+            }
+            //true, false, null 외에는 (객체, 배열) jjwt로
+            if (is(nameStart, nameEnd, "sub") || is(nameStart, nameEnd, "role")
+                    || is(nameStart, nameEnd, "exp") || is(nameStart, nameEnd, "iat") || is(nameStart, nameEnd, "nbf")
+                    || is(nameStart, nameEnd, "auth_time")) {
+                return false;
+            }
+            return literal("true") || literal("false") || literal("null");
+        }
+
+        // escape 없는 문자열만 처리. 끝나면 position은 닫는 따옴표 다음
+        private boolean skipString() {
+            if (!consume('"')) return false;
+            while (position < length) {
+                byte b = bytes[position++];
+                if (b == '"') return true;
+                if (b == '\\' || (b >= 0 && b < 0x20)) return false;
+            }
+            return false;
+        }
+
+        // 정수만, 자릿수가 넘치거나 소수/지수면 NOT_PRESENT
+        private long number() {
+            boolean negative = consume('-');
+            int start = position;
+            long value = 0;
+            while (position < length && bytes[position] >= '0' && bytes[position] <= '9') {
+                if (position - start >= 18) return NOT_PRESENT;
+                value = value * 10 + (bytes[position++] - '0');
+            }
+            if (position == start) return NOT_PRESENT;
+            if (position < length && (bytes[position] == '.' || bytes[position] == 'e' || bytes[position] == 'E')) {
+                return NOT_PRESENT;
+            }
+            return negative ? -value : value;
+        }
+
+        private boolean literal(String literal) {
+            if (position + literal.length() > length) return false;
+            for (int i = 0; i < literal.length(); i++) {
+                if (bytes[position + i] != literal.charAt(i)) return false;
+            }
+            position += literal.length();
+            return true;
+        }
+
+        private boolean is(int from, int to, String name) {
+            if (to - from != name.length()) return false;
+            for (int i = 0; i < name.length(); i++) {
+                if (bytes[from + i] != name.charAt(i)) return false;
+            }
+            return true;
+        }
+
+        private boolean consume(char c) {
+            if (position < length && bytes[position] == c) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private void skipWhitespace() {
+            while (position < length) {
+                byte b = bytes[position];
+                if (b != ' ' && b != '\t' && b != '\n' && b != '\r') return;
+                position++;
+            }
+        }
+
+        private boolean atEnd() {
+            skipWhitespace();
+            return position == length;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.demo.util;
+
+import org.slf4j.Logger;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 요청마다 지나가는 경로의 debug 로그를 전부 남기지 않고 1/rate 만 남긴다.
+ * debug가 꺼져 있으면 isDebugEnabled 확인 한 번으로 끝난다. 공유 카운터가 없어서 쓰레드 간 경합도 없다.
+ *
+ * if (DEBUG.sample()) log.debug("...", arg);
+ */
+public final class LogSampler {
+
+    public static final int DEFAULT_RATE = 100;
+
+    private final Logger logger;
+    private final int rate;
+
+    private LogSampler(Logger logger, int rate) {
+        this.logger = logger;
+        this.rate = Math.max(1, rate);
+    }
+
+    public static LogSampler debug(Logger logger) {
+        return debug(logger, DEFAULT_RATE);
+    }
+
+    public static LogSampler debug(Logger logger, int rate) {
+        return new LogSampler(logger, rate);
+    }
+
+    public boolean sample() {
+        return logger.isDebugEnabled() && (rate == 1 || ThreadLocalRandom.current().nextInt(rate) == 0);
+    }
+}
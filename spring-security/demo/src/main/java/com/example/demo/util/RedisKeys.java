@@ -0,0 +1,31 @@
+package com.example.demo.util;
+
+/**
+ * 토큰 keyspace의 Redis key 규칙. key와 value는 모두 문자열(UTF-8)로 저장한다. (StringRedisTemplate)
+ * rt:<username>      -> refresh token
+ * epoch:<username>  -> 로그아웃 시각(epoch seconds), 이 시각 이전에 발급된 토큰은 무효 (RevocationEpochs)
+ * bl:<토큰 다이제스트> -> 이전 형식의 토큰별 로그아웃 key. 새로 쓰지 않고, access token 수명 동안 남은 key를 확인만 한다.
+ *
+ * 예전 형식(JDK 직렬화, 접두사 없는 key)은 RedisKeyMigration이 옮긴다.
+ */
+public final class RedisKeys {
+
+    public static final String REFRESH_TOKEN_PREFIX = "rt:";
+    public static final String EPOCH_PREFIX = "epoch:";
+    public static final String LEGACY_LOGOUT_PREFIX = "bl:";
+
+    private RedisKeys() {
+    }
+
+    public static String refreshToken(String username) {
+        return REFRESH_TOKEN_PREFIX + username;
+    }
+
+    public static String epoch(String username) {
+        return EPOCH_PREFIX + username;
+    }
+
+    public static String legacyLogout(String accessToken) {
+        return LEGACY_LOGOUT_PREFIX + TokenDigest.of(accessToken);
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.demo.util;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
+
+// 권한 목록의 불변 표현. AuthorityRegistry에 등록된 권한마다 비트 하나를 쓴다.
+// 같은 권한 조합이면 항상 같은 인스턴스를 공유하므로 요청마다 권한 객체를 새로 만들 필요가 없다.
+public final class RoleSet {
+
+    private final long bits;
+    private final List<GrantedAuthority> authorities;
+    //토큰의 role claim 값 ("ROLE_user,ROLE_admin")
+    private final String claim;
+
+    RoleSet(long bits, List<GrantedAuthority> authorities, String claim) {
+        this.bits = bits;
+        this.authorities = authorities;
+        this.claim = claim;
+    }
+
+    public boolean contains(long bit) {
+        return (bits & bit) != 0;
+    }
+
+    public boolean isEmpty() {
+        return bits == 0;
+    }
+
+    public long getBits() {
+        return bits;
+    }
+
+    public List<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    public String getClaim() {
+        return claim;
+    }
+
+    @Override
+    public String toString() {
+        return claim;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.demo.util;
+
+import java.util.function.Supplier;
+
+/**
+ * 쓰레드 하나가 혼자 쓰는 작업 공간(버퍼, Mac, MessageDigest 등)을 꺼내 준다.
+ *
+ * 플랫폼 쓰레드는 ThreadLocal에 둔 작업 공간을 재사용한다. 요청 쓰레드 풀의 쓰레드는 계속 살아 있으므로 한 번만 만든다.
+ * 가상 쓰레드는 새 작업 공간을 만든다. 요청마다 새 쓰레드라서 ThreadLocal에 넣어도 다시 꺼낼 일이 없고,
+ * 쓰레드가 끝날 때까지 ThreadLocal map에 남기만 한다.
+ */
+final class ThreadScratch<T> {
+
+    private final Supplier<T> factory;
+    private final ThreadLocal<T> local;
+
+    ThreadScratch(Supplier<T> factory) {
+        this.factory = factory;
+        this.local = ThreadLocal.withInitial(factory);
+    }
+
+    T get() {
+        return Thread.currentThread().isVirtual() ? factory.get() : local.get();
+    }
+}
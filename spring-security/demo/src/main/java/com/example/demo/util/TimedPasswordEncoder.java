@@ -0,0 +1,37 @@
+package com.example.demo.util;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+// matches(BCrypt 비교)에 걸린 시간만 auth.login.hash로 기록한다.
+// 회원 조회, 계정 상태 확인 같은 인증의 나머지 과정은 auth.login에 포함된다.
+public final class TimedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final AuthMetrics authMetrics;
+
+    public TimedPasswordEncoder(PasswordEncoder delegate, AuthMetrics authMetrics) {
+        this.delegate = delegate;
+        this.authMetrics = authMetrics;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        long start = System.nanoTime();
+        try {
+            return delegate.matches(rawPassword, encodedPassword);
+        } finally {
+            authMetrics.passwordHash(System.nanoTime() - start);
+        }
+    }
+
+    //기본 구현은 false라서 넘기지 않으면 updatePassword(해시 방식 변경)가 호출되지 않는다.
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.demo.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+// 토큰 원문 대신 SHA-256 다이제스트를 키로 사용하기 위한 유틸
+// 수백 바이트짜리 토큰 문자열을 그대로 map 키로 쓰지 않고 고정 길이(43자) 키로 바꿔준다.
+public class TokenDigest {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    //MessageDigest는 thread-safe 하지 않아서 쓰레드마다 하나씩 둔다. 새로 만들 때는 원본을 clone 한다.
+    private static final MessageDigest PROTOTYPE = newDigest();
+    private static final ThreadScratch<MessageDigest> SHA_256 = new ThreadScratch<>(TokenDigest::copy);
+
+    private TokenDigest() {
+    }
+
+    public static byte[] digest(String token) {
+        MessageDigest messageDigest = SHA_256.get();
+        messageDigest.reset();
+        return messageDigest.digest(token.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public static String of(String token) {
+        return ENCODER.encodeToString(digest(token));
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    //provider 조회 없이 상태만 복사 (SHA-256 구현은 clone을 지원한다)
+    private static MessageDigest copy() {
+        try {
+            return (MessageDigest) PROTOTYPE.clone();
+        } catch (CloneNotSupportedException e) {
+            return newDigest();
+        }
+    }
+}
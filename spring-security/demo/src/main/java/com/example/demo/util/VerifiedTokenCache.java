@@ -0,0 +1,114 @@
+package com.example.demo.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 검증이 끝난 access token의 Authentication을 보관하는 캐시.
+ * 같은 토큰으로 반복해서 들어오는 요청은 HS512 서명 검증과 claims 파싱을 건너뛴다.
+ * 키는 토큰 원문이 아니라 SHA-256 다이제스트이고, 크기(max-size)와 토큰 만료시간(exp) 기준으로 제거된다.
+ */
+@Slf4j
+@Component
+public class VerifiedTokenCache {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final int maxSize;
+
+    public VerifiedTokenCache(@Value("${jwt.cache.max-size:10000}") int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    // 캐시에 있고 아직 만료되지 않았으면 저장된 Authentication, 아니면 null
+    public Authentication get(String token) {
+        String key = TokenDigest.of(token);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.isExpired(System.currentTimeMillis())) {
+            entries.remove(key, entry);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.authentication();
+    }
+
+    // expiresAt: 토큰 만료 시각(epoch millis)
+    public void put(String token, Authentication authentication, long expiresAt) {
+        //만료시간이 없는 토큰은 언제 지워야 할지 알 수 없으니 캐시하지 않는다.
+        if (expiresAt <= 0) return;
+        long now = System.currentTimeMillis();
+        if (entries.size() >= maxSize) {
+            evict(now);
+        }
+        entries.put(TokenDigest.of(token), new Entry(authentication, expiresAt));
+    }
+
+    // 로그아웃 등으로 더 이상 쓰면 안 되는 토큰을 캐시에서 제거
+    public void invalidate(String token) {
+        if (token == null) return;
+        entries.remove(TokenDigest.of(token));
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    // 서명 키가 빠지면 그 키로 서명된 토큰이 캐시에 남아 있을 수 있다. 토큰별 kid는 모르니 전부 비운다.
+    @EventListener
+    public void onKeysRemoved(JwtKeysRemovedEvent event) {
+        log.info("서명 키 제거로 검증 캐시를 비웁니다. kids={}", event.kids());
+        clear();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void evict(long now) {
+        //다른 쓰레드가 이미 정리중이면 기다리지 않고 넘어간다.
+        if (!evictionLock.tryLock()) return;
+        try {
+            entries.values().removeIf(entry -> entry.isExpired(now));
+            //만료된 항목만으로 자리가 나지 않으면 10% 정도를 임의로 비운다.
+            int overflow = entries.size() - maxSize + Math.max(1, maxSize / 10);
+            Iterator<String> iterator = entries.keySet().iterator();
+            while (overflow-- > 0 && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+            log.debug("VerifiedTokenCache 정리 완료, size = {}", entries.size());
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private record Entry(Authentication authentication, long expiresAt) {
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.demo.User;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+class MemberStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testAppliesInMemoryAfterRecordIsWritten() throws Exception {
+
+        //given
+        MemberStore store = store();
+        store.recover(member -> { }, List::of);
+        AtomicLong writtenAtApply = new AtomicLong(-1);
+
+        //when
+        store.append(member(1, "member1"), () -> writtenAtApply.set(logBytes())).join();
+        store.close();
+
+        //then
+        //메모리에 반영할 때는 이미 레코드가 로그 파일에 있다.
+        Assertions.assertThat(writtenAtApply.get()).isPositive();
+    }
+
+    @Test
+    public void testRecoveryStopsAtFirstCorruptRecord() throws Exception {
+
+        //given
+        //첫 세그먼트에 member1, member2 / 다시 시작해서 두 번째 세그먼트에 member3
+        MemberStore first = store();
+        first.recover(member -> { }, List::of);
+        first.append(member(1, "member1"), () -> { }).join();
+        first.append(member(2, "member2"), () -> { }).join();
+        first.close();
+        Path firstSegment = segments().get(0);
+        MemberStore second = store();
+        second.recover(member -> { }, List::of);
+        second.append(member(3, "member3"), () -> { }).join();
+        second.close();
+        //member2 레코드의 마지막 바이트를 바꿔서 crc가 맞지 않게 한다.
+        byte[] bytes = Files.readAllBytes(firstSegment);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(firstSegment, bytes);
+
+        //when
+        List<String> recovered = new ArrayList<>();
+        MemberStore store = store();
+        store.recover(member -> recovered.add(member.getUsername()), List::of);
+        store.close();
+
+        //then
+        //손상된 레코드 뒤의 세그먼트(member3)는 적용하지 않고 옆으로 치운다.
+        Assertions.assertThat(recovered).containsExactly("member1");
+        try (Stream<Path> files = Files.list(dir)) {
+            Assertions.assertThat(files.map(path -> path.getFileName().toString()))
+                    .anyMatch(name -> name.endsWith(".log.discarded"));
+        }
+    }
+
+    @Test
+    public void testRecoversFromSnapshotPlusRemainingLog() throws Exception {
+
+        //given
+        //lsn 1, 2를 스냅샷으로 내리고, 그 뒤에 lsn 3(member3), lsn 4(member2 변경)를 로그에 남긴다.
+        Map<String, Member> members = new ConcurrentHashMap<>();
+        MemberStore first = store();
+        first.recover(member -> members.put(member.getUsername(), member), members::values);
+        first.append(member(1, "member1"), () -> members.put("member1", member(1, "member1"))).join();
+        first.append(member(2, "member2"), () -> members.put("member2", member(2, "member2"))).join();
+        first.snapshot();
+        Member changed = member(2, "member2");
+        changed.setNickname("changed");
+        first.append(member(3, "member3"), () -> members.put("member3", member(3, "member3"))).join();
+        first.append(changed, () -> members.put("member2", changed)).join();
+        first.close();
+
+        //when
+        List<String> applied = new ArrayList<>();
+        Map<String, Member> recovered = new ConcurrentHashMap<>();
+        MemberStore store = store();
+        store.recover(member -> {
+            applied.add(member.getUsername());
+            recovered.put(member.getUsername(), member);
+        }, recovered::values);
+        store.close();
+
+        //then
+        //스냅샷에 포함된 첫 세그먼트(lsn 1부터)는 지워지고, 스냅샷 이후 세그먼트(lsn 3부터)만 남는다.
+        Assertions.assertThat(dir.resolve("members.snapshot")).exists();
+        Assertions.assertThat(segments()).extracting(path -> path.getFileName().toString())
+                .doesNotContain(String.format("members-%020d.log", 1))
+                .contains(String.format("members-%020d.log", 3));
+        //스냅샷 2건을 읽고, 로그는 스냅샷 이후 2건만 다시 적용한다.
+        Assertions.assertThat(applied).hasSize(4);
+        Assertions.assertThat(applied.subList(0, 2)).containsExactlyInAnyOrder("member1", "member2");
+        Assertions.assertThat(applied.subList(2, 4)).containsExactly("member3", "member2");
+        Assertions.assertThat(recovered.keySet()).containsExactlyInAnyOrder("member1", "member2", "member3");
+        Assertions.assertThat(recovered.get("member2").getNickname()).isEqualTo("changed");
+        Assertions.assertThat(recovered.get("member3").getId()).isEqualTo(3L);
+    }
+
+    private MemberStore store() {
+        return new MemberStore(true, dir.toString(), true, 256, Long.MAX_VALUE);
+    }
+
+    private static Member member(long id, String username) {
+        return Member.builder()
+                .id(id)
+                .username(username)
+                .password("{bcrypt}unused")
+                .roles(List.of("user"))
+                .build();
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".log")).sorted().toList();
+        }
+    }
+
+    private long logBytes() {
+        try {
+            long total = 0;
+            for (Path path : segments()) total += Files.size(path);
+            return total;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
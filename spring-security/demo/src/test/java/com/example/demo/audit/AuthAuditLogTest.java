@@ -0,0 +1,155 @@
+package com.example.demo.audit;
+
+import com.example.demo.audit.AuditEvent.Type;
+import com.example.demo.audit.AuthAuditLog.Overflow;
+import com.example.demo.util.AuthMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+class AuthAuditLogTest {
+
+    @TempDir
+    Path dir;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    public void testRingDeliversEveryValueOnceAcrossThreads() throws Exception {
+
+        //given
+        AuditRing<Long> ring = new AuditRing<>(64);
+        int producers = 4;
+        int perProducer = 20_000;
+        AtomicLong sum = new AtomicLong();
+        AtomicLong count = new AtomicLong();
+        AtomicBoolean producing = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(producers + 2);
+
+        //when
+        try {
+            List<Future<?>> consumers = List.of(executor.submit(() -> drain(ring, producing, sum, count)),
+                    executor.submit(() -> drain(ring, producing, sum, count)));
+            List<Future<?>> futures = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                int base = p * perProducer;
+                futures.add(executor.submit(() -> {
+                    for (long i = base + 1; i <= base + perProducer; i++) {
+                        while (!ring.offer(i)) Thread.yield();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) future.get(30, TimeUnit.SECONDS);
+            producing.set(false);
+            for (Future<?> future : consumers) future.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        //then
+        long total = (long) producers * perProducer;
+        Assertions.assertThat(count.get()).isEqualTo(total);
+        Assertions.assertThat(sum.get()).isEqualTo(total * (total + 1) / 2);
+    }
+
+    @Test
+    public void testDropNewestDiscardsNewEventsWhenFull() throws Exception {
+
+        //given
+        AuthAuditLog auditLog = auditLog(Overflow.DROP_NEWEST, 1024);
+
+        //when
+        //writer를 시작하기 전이라 링에만 쌓인다.
+        for (int i = 0; i < 6; i++) auditLog.success(Type.LOGIN, "user" + i);
+        auditLog.start();
+        auditLog.stop();
+
+        //then
+        Assertions.assertThat(users(Files.readAllLines(dir.resolve("auth-audit.log"))))
+                .containsExactly("user0", "user1", "user2", "user3");
+        Assertions.assertThat(registry.counter("auth.audit.dropped").count()).isEqualTo(2);
+    }
+
+    @Test
+    public void testDropOldestDiscardsOldestEventsWhenFull() throws Exception {
+
+        //given
+        AuthAuditLog auditLog = auditLog(Overflow.DROP_OLDEST, 1024);
+
+        //when
+        for (int i = 0; i < 6; i++) auditLog.success(Type.LOGIN, "user" + i);
+        auditLog.start();
+        auditLog.stop();
+
+        //then
+        Assertions.assertThat(users(Files.readAllLines(dir.resolve("auth-audit.log"))))
+                .containsExactly("user2", "user3", "user4", "user5");
+        Assertions.assertThat(registry.counter("auth.audit.dropped").count()).isEqualTo(2);
+    }
+
+    @Test
+    public void testRotatesAndKeepsMaxFiles() throws Exception {
+
+        //given
+        //한 줄이 100 바이트 남짓이라 batch(1건)마다 새 파일로 넘어간다. 링이 작아서 마지막 이벤트가 남도록 DROP_OLDEST
+        AuthAuditLog auditLog = auditLog(Overflow.DROP_OLDEST, 200);
+
+        //when
+        auditLog.start();
+        for (int i = 0; i < 20; i++) {
+            auditLog.failure(Type.TOKEN_REJECTED, "user\"" + i, "BAD_SIGNATURE");
+        }
+        auditLog.stop();
+
+        //then
+        Assertions.assertThat(dir.resolve("auth-audit.log.1")).exists();
+        Assertions.assertThat(dir.resolve("auth-audit.log.2")).exists();
+        Assertions.assertThat(dir.resolve("auth-audit.log.3")).doesNotExist();
+        List<String> lines = Files.readAllLines(dir.resolve("auth-audit.log"));
+        //username은 JSON escape 되고, reason은 소문자 코드로 기록된다.
+        Assertions.assertThat(lines.get(lines.size() - 1))
+                .contains("\"type\":\"token_rejected\",\"success\":false,\"user\":\"user\\\"19\",\"reason\":\"bad_signature\"");
+    }
+
+    private AuthAuditLog auditLog(Overflow overflow, long maxFileBytes) {
+        //capacity 4, batch 1, 파일은 현재 + 2개
+        return new AuthAuditLog(new AuthMetrics(registry), true, dir.toString(), 4, overflow, 1, 1, maxFileBytes, 2);
+    }
+
+    private static List<String> users(List<String> lines) {
+        return lines.stream()
+                .map(line -> line.substring(line.indexOf("\"user\":\"") + 8, line.indexOf("\",\"reason\"")))
+                .toList();
+    }
+
+    private static void drain(AuditRing<Long> ring, AtomicBoolean producing, AtomicLong sum, AtomicLong count) {
+        while (true) {
+            Long value = ring.poll();
+            if (value != null) {
+                sum.addAndGet(value);
+                count.incrementAndGet();
+            } else if (producing.get()) {
+                Thread.yield();
+            } else {
+                //생산이 끝난 뒤 한 번 더 비운다.
+                while ((value = ring.poll()) != null) {
+                    sum.addAndGet(value);
+                    count.incrementAndGet();
+                }
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.demo.config;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+class RouteTableTest {
+
+    private final RouteTable routeTable = RouteTable.builder()
+            .publicEndpoint("/", "/members/sign-in", "/members/reissue")
+            .permitAll("/error/**")
+            .hasRole("user", "/api1", "/user/**")
+            .hasRole("admin", "/user/admin")
+            .build();
+
+    @Test
+    public void testMostSpecificRuleWins() throws Exception {
+
+        //given
+        String[] paths = {"/", "/api1", "/user", "/user/profile/image", "/user/admin", "/error"};
+
+        //when
+        String[] patterns = new String[paths.length];
+        for (int i = 0; i < paths.length; i++) patterns[i] = routeTable.match(paths[i]).pattern();
+
+        //then
+        //"/**"는 자기 자신도 포함
+        Assertions.assertThat(patterns)
+                .containsExactly("/", "/api1", "/user/**", "/user/**", "/user/admin", "/error/**");
+    }
+
+    @Test
+    public void testUnmatchedPathsUseDefaultRule() throws Exception {
+
+        //given
+        String[] paths = {"/api1/", "/api2", "/API1", "/members", "/member/reissue"};
+
+        //when
+        String[] patterns = new String[paths.length];
+        for (int i = 0; i < paths.length; i++) patterns[i] = routeTable.match(paths[i]).pattern();
+
+        //then
+        Assertions.assertThat(patterns).containsOnly("**");
+    }
+
+    @Test
+    public void testOnlyPublicEndpointsSkipVerification() throws Exception {
+
+        //given
+        String[] paths = {"/members/reissue", "/error", "/api1"};
+
+        //when
+        boolean[] skips = new boolean[paths.length];
+        for (int i = 0; i < paths.length; i++) skips[i] = routeTable.match(paths[i]).skipVerification();
+
+        //then
+        Assertions.assertThat(skips).containsExactly(true, false, false);
+    }
+
+    @Test
+    public void testMatchesOncePerRequestUntilPathChanges() throws Exception {
+
+        //given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api1");
+        request.setServletPath("/api1");
+        RouteTable.Route route = routeTable.match(request);
+
+        //when
+        RouteTable.Route again = routeTable.match(request);
+        //error dispatch
+        request.setServletPath("/error");
+        RouteTable.Route error = routeTable.match(request);
+
+        //then
+        Assertions.assertThat(again).isSameAs(route);
+        Assertions.assertThat(error.pattern()).isEqualTo("/error/**");
+    }
+
+    @Test
+    public void testFirstMatchOverRoutesAgreesWithMatch() throws Exception {
+
+        //given
+        //reactive 체인은 routes()를 순서대로 pathMatchers로 옮긴다. (처음 맞는 규칙 적용)
+        String[] paths = {"/", "/api1", "/api1/", "/user", "/user/profile", "/user/admin", "/user/admin/x", "/error", "/api2"};
+
+        //when
+        String[] firstMatches = new String[paths.length];
+        String[] matches = new String[paths.length];
+        for (int i = 0; i < paths.length; i++) {
+            String path = paths[i];
+            firstMatches[i] = routeTable.routes().stream()
+                    .filter(route -> matches(route.pattern(), path))
+                    .findFirst()
+                    .orElse(routeTable.defaultRoute())
+                    .pattern();
+            matches[i] = routeTable.match(path).pattern();
+        }
+
+        //then
+        Assertions.assertThat(firstMatches).containsExactly(matches);
+        Assertions.assertThat(routeTable.routes()).extracting(RouteTable.Route::access)
+                .contains(RouteTable.Access.PERMIT_ALL, RouteTable.Access.ROLE);
+    }
+
+    @Test
+    public void testDuplicateOrWildcardPatternsFail() throws Exception {
+
+        //given
+        RouteTable.Builder duplicate = RouteTable.builder().permitAll("/a");
+        RouteTable.Builder unsupported = RouteTable.builder().permitAll("/a/*/b");
+
+        //when, then
+        Assertions.assertThatThrownBy(() -> duplicate.hasRole("user", "/a"))
+                .isInstanceOf(IllegalArgumentException.class);
+        Assertions.assertThatThrownBy(unsupported::build)
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // PathPattern과 같은 규칙 : "/a/**"는 "/a"와 그 하위 경로
+    private static boolean matches(String pattern, String path) {
+        if (!pattern.endsWith("/**")) return pattern.equals(path);
+        String base = pattern.substring(0, pattern.length() - 3);
+        return path.equals(base) || path.startsWith(base + "/");
+    }
+}
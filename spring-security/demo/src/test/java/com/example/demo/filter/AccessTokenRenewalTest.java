@@ -0,0 +1,158 @@
+package com.example.demo.filter;
+
+import com.example.demo.User.Member;
+import com.example.demo.User.MemberRepository;
+import com.example.demo.User.MemberStore;
+import com.example.demo.dto.VerifiedToken;
+import com.example.demo.service.RevocationEpochs;
+import com.example.demo.util.AuthorityRegistry;
+import com.example.demo.util.JwtAuthentication;
+import com.example.demo.util.JwtFixtures;
+import com.example.demo.util.JwtTokenProvider;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+
+import java.util.List;
+
+class AccessTokenRenewalTest {
+
+    private static final long WINDOW = 60_000;
+    private static final long JITTER = 30_000;
+
+    private final JwtTokenProvider provider = JwtFixtures.provider();
+    private final RevocationEpochs epochs = JwtFixtures.revocationEpochs();
+    private final MemberRepository repository = repository();
+    private final AccessTokenRenewal renewal = new AccessTokenRenewal(provider, epochs, repository, true, WINDOW, JITTER, 100);
+
+    @Test
+    public void testRenewsOnlyNearExpiry() throws Exception {
+
+        //given
+        JwtAuthentication authentication = authentication();
+        long expiresAt = authentication.getExpiresAt();
+        String token = (String) authentication.getCredentials();
+
+        //when
+        String early = renewal.renew(authentication, token, expiresAt - WINDOW - 1);
+        String expired = renewal.renew(authentication, token, expiresAt + 1);
+        //jitter만큼 늦춰도 window - jitter 안쪽이면 항상 갱신 구간
+        String renewed = renewal.renew(authentication, token, expiresAt - (WINDOW - JITTER) + 1);
+
+        //then
+        Assertions.assertThat(early).isNull();
+        Assertions.assertThat(expired).isNull();
+        Assertions.assertThat(renewed).isNotNull();
+        VerifiedToken verified = provider.verify(renewed);
+        Assertions.assertThat(verified.isValid()).isTrue();
+        Assertions.assertThat(verified.getSubject()).isEqualTo("username");
+        Assertions.assertThat(verified.getRoleSet()).isSameAs(authentication.getRoleSet());
+        Assertions.assertThat(verified.getAuthTime()).isEqualTo(authentication.getAuthTime());
+    }
+
+    @Test
+    public void testSameTokenAlwaysRenewsFromSamePoint() throws Exception {
+
+        //given
+        JwtAuthentication authentication = authentication();
+        String token = (String) authentication.getCredentials();
+        long expiresAt = authentication.getExpiresAt();
+
+        //when
+        //갱신이 시작되는 남은 시간을 찾는다.
+        long start = -1;
+        String first = null;
+        for (long remaining = WINDOW; remaining >= WINDOW - JITTER; remaining -= 100) {
+            first = renewal.renew(authentication, token, expiresAt - remaining);
+            if (first != null) {
+                start = remaining;
+                break;
+            }
+        }
+
+        //then
+        Assertions.assertThat(start).isBetween(WINDOW - JITTER, WINDOW);
+        Assertions.assertThat(renewal.renew(authentication, token, expiresAt - start - 100)).isNull();
+        //같은 토큰으로는 새로 발급하지 않고 처음 발급한 토큰을 다시 준다.
+        Assertions.assertThat(renewal.renew(authentication, token, expiresAt - start)).isSameAs(first);
+        Assertions.assertThat(renewal.renew(authentication, token, expiresAt - 1)).isSameAs(first);
+    }
+
+    @Test
+    public void testStopsRenewingAfterRefreshTokenLifetime() throws Exception {
+
+        //given
+        //refresh token 수명보다 오래 전에 로그인한 세션이 갱신만으로 이어져 온 토큰
+        long issuedAt = System.currentTimeMillis() / 1000;
+        long authTime = issuedAt - JwtFixtures.REFRESH_TOKEN_EXP_TIME / 1000;
+        JwtAuthentication stale = authentication(issuedAt, authTime);
+        JwtAuthentication fresh = authentication(issuedAt, issuedAt);
+
+        //when
+        String staleRenewed = renewal.renew(stale, (String) stale.getCredentials(), stale.getExpiresAt() - 1);
+        String freshRenewed = renewal.renew(fresh, (String) fresh.getCredentials(), fresh.getExpiresAt() - 1);
+
+        //then
+        Assertions.assertThat(staleRenewed).isNull();
+        Assertions.assertThat(freshRenewed).isNotNull();
+    }
+
+    @Test
+    public void testRenewedTokenUsesCurrentRoles() throws Exception {
+
+        //given
+        JwtAuthentication authentication = authentication();
+        //토큰을 받은 뒤 권한이 바뀌었다.
+        Member changed = JwtFixtures.member("username", "user", "admin");
+        changed.setId(repository.findByUsername("username").orElseThrow().getId());
+        repository.save(changed);
+        JwtAuthentication unknown = authentication("nobody");
+
+        //when
+        String renewed = renewal.renew(authentication, (String) authentication.getCredentials(),
+                authentication.getExpiresAt() - 1);
+        String unknownRenewed = renewal.renew(unknown, (String) unknown.getCredentials(), unknown.getExpiresAt() - 1);
+
+        //then
+        Assertions.assertThat(provider.verify(renewed).getRoleSet()).isSameAs(AuthorityRegistry.ofRoles(List.of("user", "admin")));
+        Assertions.assertThat(unknownRenewed).isNull();
+    }
+
+    @Test
+    public void testDisabledNeverRenews() throws Exception {
+
+        //given
+        JwtAuthentication authentication = authentication();
+        AccessTokenRenewal disabled = new AccessTokenRenewal(provider, epochs, repository, false, WINDOW, JITTER, 100);
+
+        //when
+        String renewed = disabled.renew(authentication, (String) authentication.getCredentials(),
+                authentication.getExpiresAt() - 1);
+
+        //then
+        Assertions.assertThat(renewed).isNull();
+    }
+
+    private JwtAuthentication authentication() {
+        return authentication("username");
+    }
+
+    private JwtAuthentication authentication(String username) {
+        long now = System.currentTimeMillis() / 1000;
+        String token = provider.createAccessToken(username, AuthorityRegistry.ofRoles(List.of("user")), now, now);
+        return (JwtAuthentication) provider.getAuthentication(token);
+    }
+
+    private JwtAuthentication authentication(long issuedAt, long authTime) {
+        String token = provider.createAccessToken("username", AuthorityRegistry.ofRoles(List.of("user")), issuedAt, authTime);
+        return (JwtAuthentication) provider.getAuthentication(token);
+    }
+
+    //저장 파일 없이 메모리에만 있는 회원 저장소, 회원은 username 하나
+    private static MemberRepository repository() {
+        MemberRepository repository = new MemberRepository(new MemberStore(false, "", false, 256, Long.MAX_VALUE),
+                NoOpPasswordEncoder.getInstance());
+        repository.save(JwtFixtures.member("username", "user"));
+        return repository;
+    }
+}
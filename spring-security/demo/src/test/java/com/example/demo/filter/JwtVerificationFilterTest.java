@@ -0,0 +1,81 @@
+package com.example.demo.filter;
+
+import com.example.demo.audit.AuthAuditLog;
+import com.example.demo.config.RouteTable;
+import com.example.demo.error.RedisUnavailableException;
+import com.example.demo.service.RedisCircuitBreaker;
+import com.example.demo.service.RevocationEpochs;
+import com.example.demo.util.AuthMetrics;
+import com.example.demo.util.AuthorityRegistry;
+import com.example.demo.util.JwtFixtures;
+import com.example.demo.util.JwtTokenProvider;
+import com.example.demo.util.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.List;
+
+class JwtVerificationFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AuthMetrics authMetrics = new AuthMetrics(registry);
+    private final JwtTokenProvider provider = JwtFixtures.provider();
+    private final VerifiedTokenCache cache = new VerifiedTokenCache(100);
+
+    @AfterEach
+    public void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void testLegacyRevokedTokenIsRejectedAndNotCachedWhileBreakerOpen() throws Exception {
+
+        //given
+        //bl: key가 남아 있는 토큰. Redis에 닿으면 로그아웃된 토큰으로 확인된다.
+        StringRedisTemplate stringRedisTemplate = Mockito.mock(StringRedisTemplate.class);
+        Mockito.when(stringRedisTemplate.hasKey(ArgumentMatchers.anyString())).thenReturn(true);
+        //실패 한 번에 열리고, 테스트 동안은 다시 시험 호출을 보내지 않는다.
+        RedisCircuitBreaker breaker = new RedisCircuitBreaker(1, 60_000, authMetrics);
+        Assertions.assertThatThrownBy(() -> breaker.call("get", Duration.ofMillis(20), () -> {
+            throw new RedisConnectionFailureException("redis down");
+        })).isInstanceOf(RedisUnavailableException.class);
+        RevocationEpochs revocationEpochs = new RevocationEpochs(stringRedisTemplate, breaker, 20, 50,
+                JwtFixtures.ACCESS_TOKEN_EXP_TIME, JwtFixtures.REFRESH_TOKEN_EXP_TIME, 1000, 2000, true);
+        JwtVerificationFilter filter = new JwtVerificationFilter(provider, cache, revocationEpochs, authMetrics,
+                new AccessTokenRenewal(provider, revocationEpochs, null, false, 60_000, 30_000, 100),
+                RouteTable.builder().build(),
+                new AuthAuditLog(authMetrics, false, "", 2, AuthAuditLog.Overflow.DROP_NEWEST, 1, 50, Long.MAX_VALUE, 1));
+        long issuedAt = System.currentTimeMillis() / 1000 - 10;
+        String accessToken = provider.createAccessToken("username", AuthorityRegistry.ofRoles(List.of("user")),
+                issuedAt, issuedAt);
+
+        //when
+        boolean[] authenticated = new boolean[2];
+        for (int i = 0; i < 2; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api1");
+            request.addHeader("Authorization", "Bearer " + accessToken);
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            authenticated[i] = SecurityContextHolder.getContext().getAuthentication() != null;
+            SecurityContextHolder.clearContext();
+        }
+
+        //then
+        //두 번 모두 거절되고, 확인하지 못한 토큰은 캐시에 들어가지 않는다.
+        Assertions.assertThat(authenticated).containsExactly(false, false);
+        Assertions.assertThat(cache.get(accessToken)).isNull();
+        Assertions.assertThat(registry.get("auth.verify").tag("outcome", "unavailable").timer().count()).isEqualTo(2);
+        Assertions.assertThat(registry.get("auth.verify").tag("outcome", "verified").timer().count()).isZero();
+        Mockito.verify(stringRedisTemplate, Mockito.never()).hasKey(ArgumentMatchers.anyString());
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.demo.service;
+
+import com.example.demo.error.RedisUnavailableException;
+import com.example.demo.util.AuthMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+class RedisCircuitBreakerTest {
+
+    private static final Duration BUDGET = Duration.ofMillis(20);
+    private static final AuthMetrics METRICS = new AuthMetrics(new SimpleMeterRegistry());
+
+    //Redis 대신 쓰는 stand-in. 설정한 만큼 지연시킨 뒤 값을 돌려주고 호출 횟수를 센다.
+    static class LatentRedis implements Supplier<String> {
+        final AtomicInteger calls = new AtomicInteger();
+        volatile long latencyMs;
+        volatile boolean down;
+
+        @Override
+        public String get() {
+            calls.incrementAndGet();
+            if (down) throw new RedisConnectionFailureException("redis down");
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "false";
+        }
+    }
+
+    @Test
+    public void testSlowCallsOpenCircuit() throws Exception {
+
+        //given
+        RedisCircuitBreaker breaker = new RedisCircuitBreaker(3, 1000, METRICS);
+        LatentRedis redis = new LatentRedis();
+        redis.latencyMs = 40;
+
+        //when
+        for (int i = 0; i < 3; i++) {
+            breaker.call("get", BUDGET, redis);
+        }
+
+        //then
+        Assertions.assertThat(breaker.getState()).isEqualTo(RedisCircuitBreaker.State.OPEN);
+        long start = System.nanoTime();
+        Assertions.assertThatThrownBy(() -> breaker.call("get", BUDGET, redis))
+                .isInstanceOf(RedisUnavailableException.class);
+        //OPEN 상태에서는 Redis를 부르지 않고 바로 실패해야 한다.
+        Assertions.assertThat(redis.calls.get()).isEqualTo(3);
+        Assertions.assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(BUDGET);
+    }
+
+    @Test
+    public void testFailuresOpenCircuit() throws Exception {
+
+        //given
+        RedisCircuitBreaker breaker = new RedisCircuitBreaker(2, 1000, METRICS);
+        LatentRedis redis = new LatentRedis();
+        redis.down = true;
+
+        //when
+        for (int i = 0; i < 2; i++) {
+            Assertions.assertThatThrownBy(() -> breaker.call("get", BUDGET, redis))
+                    .isInstanceOf(RedisUnavailableException.class)
+                    .hasCauseInstanceOf(RedisConnectionFailureException.class);
+        }
+
+        //then
+        Assertions.assertThat(breaker.getState()).isEqualTo(RedisCircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    public void testHalfOpenTrialClosesCircuitWhenRedisRecovers() throws Exception {
+
+        //given
+        RedisCircuitBreaker breaker = new RedisCircuitBreaker(1, 50, METRICS);
+        LatentRedis redis = new LatentRedis();
+        redis.latencyMs = 40;
+        breaker.call("get", BUDGET, redis);
+        Assertions.assertThat(breaker.getState()).isEqualTo(RedisCircuitBreaker.State.OPEN);
+
+        //when
+        redis.latencyMs = 0;
+        Thread.sleep(60);
+        String value = breaker.call("get", BUDGET, redis);
+
+        //then
+        Assertions.assertThat(value).isEqualTo("false");
+        Assertions.assertThat(breaker.getState()).isEqualTo(RedisCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    public void testSlowTrialReopensCircuit() throws Exception {
+
+        //given
+        RedisCircuitBreaker breaker = new RedisCircuitBreaker(1, 50, METRICS);
+        LatentRedis redis = new LatentRedis();
+        redis.latencyMs = 40;
+        breaker.call("get", BUDGET, redis);
+
+        //when
+        Thread.sleep(60);
+        breaker.call("get", BUDGET, redis);
+
+        //then
+        Assertions.assertThat(breaker.getState()).isEqualTo(RedisCircuitBreaker.State.OPEN);
+    }
+}
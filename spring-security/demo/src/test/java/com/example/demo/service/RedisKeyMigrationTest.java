@@ -0,0 +1,79 @@
+package com.example.demo.service;
+
+import com.example.demo.util.AuthMetrics;
+import com.example.demo.util.AuthorityRegistry;
+import com.example.demo.util.JwtAuthentication;
+import com.example.demo.util.JwtFixtures;
+import com.example.demo.util.JwtTokenProvider;
+import com.example.demo.util.RedisKeys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisKeyCommands;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+
+import java.time.Duration;
+import java.util.List;
+
+class RedisKeyMigrationTest {
+
+    private final JdkSerializationRedisSerializer legacySerializer = new JdkSerializationRedisSerializer();
+    private final JwtTokenProvider provider = JwtFixtures.provider();
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testLegacyLogoutKeyStillRevokesTokenAfterMigration() throws Exception {
+
+        //given
+        //배포 전에 로그아웃된 access token. 예전 형식은 token -> "logout" (JDK 직렬화)
+        long issuedAt = System.currentTimeMillis() / 1000 - 10;
+        String accessToken = provider.createAccessToken("username", AuthorityRegistry.ofRoles(List.of("user")),
+                issuedAt, issuedAt);
+        JwtAuthentication authentication = (JwtAuthentication) provider.getAuthentication(accessToken);
+        byte[] legacyKey = legacySerializer.serialize(accessToken);
+
+        RedisKeyCommands keyCommands = Mockito.mock(RedisKeyCommands.class);
+        RedisStringCommands stringCommands = Mockito.mock(RedisStringCommands.class);
+        Cursor<byte[]> cursor = Mockito.mock(Cursor.class);
+        Mockito.when(cursor.hasNext()).thenReturn(true, false);
+        Mockito.when(cursor.next()).thenReturn(legacyKey);
+        Mockito.when(keyCommands.scan(ArgumentMatchers.any(ScanOptions.class))).thenReturn(cursor);
+        Mockito.when(keyCommands.pTtl(legacyKey)).thenReturn(60_000L);
+        Mockito.when(stringCommands.get(legacyKey)).thenReturn(legacySerializer.serialize("logout"));
+        RedisConnection connection = Mockito.mock(RedisConnection.class);
+        Mockito.when(connection.keyCommands()).thenReturn(keyCommands);
+        Mockito.when(connection.stringCommands()).thenReturn(stringCommands);
+
+        ValueOperations<String, String> values = Mockito.mock(ValueOperations.class);
+        StringRedisTemplate stringRedisTemplate = Mockito.mock(StringRedisTemplate.class);
+        Mockito.when(stringRedisTemplate.opsForValue()).thenReturn(values);
+        Mockito.when(stringRedisTemplate.execute(ArgumentMatchers.any(RedisCallback.class)))
+                .thenAnswer(invocation -> ((RedisCallback<?>) invocation.getArgument(0)).doInRedis(connection));
+
+        RevocationEpochs revocationEpochs = JwtFixtures.revocationEpochs(stringRedisTemplate);
+        RedisCircuitBreaker breaker = new RedisCircuitBreaker(5, 1000, new AuthMetrics(new SimpleMeterRegistry()));
+        RedisKeyMigration migration = new RedisKeyMigration(stringRedisTemplate, breaker, provider, revocationEpochs,
+                true, true, 1000, 20);
+        Assertions.assertThat(revocationEpochs.isRevoked(authentication)).isFalse();
+
+        //when
+        RedisKeyMigration.Result result = migration.migrate();
+
+        //then
+        //예전 key는 지워지고, 그 토큰은 사용자 epoch로 계속 거절된다. (다른 노드는 epoch:<sub>로 안다)
+        Assertions.assertThat(result.skipped()).isEqualTo(1);
+        Assertions.assertThat(revocationEpochs.isRevoked(authentication)).isTrue();
+        Mockito.verify(values).set(ArgumentMatchers.eq(RedisKeys.epoch("username")), ArgumentMatchers.anyString(),
+                ArgumentMatchers.any(Duration.class));
+        Mockito.verify(keyCommands).del(legacyKey);
+    }
+}
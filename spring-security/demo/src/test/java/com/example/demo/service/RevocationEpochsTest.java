@@ -0,0 +1,101 @@
+package com.example.demo.service;
+
+import com.example.demo.util.JwtFixtures;
+import com.example.demo.util.RedisKeys;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.nio.charset.StandardCharsets;
+
+class RevocationEpochsTest {
+
+    private final RevocationEpochs epochs = JwtFixtures.revocationEpochs();
+
+    private static long now() {
+        return System.currentTimeMillis() / 1000;
+    }
+
+    @Test
+    public void testLogoutRevokesTokensIssuedBefore() throws Exception {
+
+        //given
+        long issuedAt = now() - 10;
+        Assertions.assertThat(epochs.isRevoked("user", issuedAt)).isFalse();
+
+        //when
+        epochs.revokeAll("user");
+
+        //then
+        Assertions.assertThat(epochs.isRevoked("user", issuedAt)).isTrue();
+        //같은 초에 발급된 토큰도 로그아웃 이전일 수 있으므로 거절
+        Assertions.assertThat(epochs.isRevoked("user", now())).isTrue();
+        Assertions.assertThat(epochs.isRevoked("other", issuedAt)).isFalse();
+    }
+
+    @Test
+    public void testTokensIssuedAfterLogoutAreAccepted() throws Exception {
+
+        //given
+        epochs.revokeAll("user");
+
+        //when
+        //로그아웃한 그 초 안에 다시 로그인해도 새 토큰은 epoch 이후로 발급된다.
+        long issuedAt = epochs.issuedAt("user");
+
+        //then
+        Assertions.assertThat(issuedAt).isGreaterThan(now() - 1);
+        Assertions.assertThat(epochs.isRevoked("user", issuedAt)).isFalse();
+    }
+
+    @Test
+    public void testEpochsFromOtherNodesOnlyMoveForward() throws Exception {
+
+        //given
+        long later = now() + 100;
+
+        //when
+        epochs.onMessage(message("user:with:colon:" + later), null);
+        epochs.onMessage(message("user:with:colon:" + (later - 50)), null);
+        epochs.onMessage(message("broken"), null);
+
+        //then
+        Assertions.assertThat(epochs.isRevoked("user:with:colon", later)).isTrue();
+        Assertions.assertThat(epochs.isRevoked("user:with:colon", later + 1)).isFalse();
+        Assertions.assertThat(epochs.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void testIssuedAtFollowsEpochWrittenByOtherNode() throws Exception {
+
+        //given
+        //다른 노드가 이번 초에 로그아웃을 기록했지만 pub/sub 메시지는 아직 오지 않았다.
+        long epoch = now();
+        RevocationEpochs remote = JwtFixtures.revocationEpochs(redisWithEpoch("user", epoch));
+        Assertions.assertThat(remote.isRevoked("user", epoch)).isFalse();
+
+        //when
+        long issuedAt = remote.issuedAt("user");
+
+        //then
+        Assertions.assertThat(issuedAt).isGreaterThan(epoch);
+        Assertions.assertThat(remote.isRevoked("user", issuedAt)).isFalse();
+        Assertions.assertThat(remote.isRevoked("user", epoch)).isTrue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static StringRedisTemplate redisWithEpoch(String username, long epoch) {
+        ValueOperations<String, String> values = Mockito.mock(ValueOperations.class);
+        Mockito.when(values.get(RedisKeys.epoch(username))).thenReturn(Long.toString(epoch));
+        StringRedisTemplate stringRedisTemplate = Mockito.mock(StringRedisTemplate.class);
+        Mockito.when(stringRedisTemplate.opsForValue()).thenReturn(values);
+        return stringRedisTemplate;
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(RevocationEpochs.CHANNEL.getBytes(StandardCharsets.UTF_8), body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.demo.util;
+
+import com.example.demo.User.Member;
+import com.example.demo.service.RedisCircuitBreaker;
+import com.example.demo.service.RevocationEpochs;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.Base64;
+import java.util.List;
+
+// 테스트/벤치마크용 JwtTokenProvider/토큰 준비. Spring 컨텍스트 없이 직접 만든다. (jmh source set도 이 클래스를 쓴다)
+public final class JwtFixtures {
+
+    public static final String SECRET = Base64.getEncoder().encodeToString(
+            "spring-security-benchmark-secret-spring-security-benchmark-secret".getBytes());
+    public static final long ACCESS_TOKEN_EXP_TIME = 60 * 60 * 1000L;
+    public static final long REFRESH_TOKEN_EXP_TIME = 14 * 24 * 60 * 60 * 1000L;
+
+    private JwtFixtures() {
+    }
+
+    // jwt.secret 키 하나만 있는 키 링 (키 파일 없음)
+    public static JwtKeyRing keyRing() {
+        return new JwtKeyRing(SECRET, "", "", event -> { });
+    }
+
+    public static JwtTokenProvider provider() {
+        JwtTokenProvider provider = new JwtTokenProvider(keyRing());
+        provider.secret = SECRET;
+        provider.accessTokenExpTime = ACCESS_TOKEN_EXP_TIME;
+        provider.refreshTokenExpTime = REFRESH_TOKEN_EXP_TIME;
+        try {
+            provider.afterPropertiesSet();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return provider;
+    }
+
+    // 연결 없는 템플릿이라 Redis 기록/발행은 실패하고 로컬 epoch만 반영된다. 이전 형식 로그아웃 key(bl:)는 확인하지 않는다.
+    public static RevocationEpochs revocationEpochs() {
+        return revocationEpochs(new StringRedisTemplate());
+    }
+
+    public static RevocationEpochs revocationEpochs(StringRedisTemplate stringRedisTemplate) {
+        RedisCircuitBreaker breaker = new RedisCircuitBreaker(5, 1000, new AuthMetrics(new SimpleMeterRegistry()));
+        return new RevocationEpochs(stringRedisTemplate, breaker, 20, 50, ACCESS_TOKEN_EXP_TIME, REFRESH_TOKEN_EXP_TIME, 1000, 2000, false);
+    }
+
+    public static Member member(String username, String... roles) {
+        return Member.builder()
+                .username(username)
+                .password("{bcrypt}unused")
+                .roles(List.of(roles))
+                .build();
+    }
+}
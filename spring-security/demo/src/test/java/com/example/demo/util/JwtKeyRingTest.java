@@ -0,0 +1,126 @@
+package com.example.demo.util;
+
+import io.jsonwebtoken.security.SignatureException;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+
+class JwtKeyRingTest {
+
+    @TempDir
+    Path dir;
+
+    private final List<Object> events = new ArrayList<>();
+
+    @Test
+    public void testDefaultKeyOnlyWithoutKeyFile() throws Exception {
+
+        //given
+        JwtKeyRing keyRing = new JwtKeyRing(JwtFixtures.SECRET, "", "", events::add);
+
+        //when
+        JwtKeyRing.SigningKey active = keyRing.active();
+
+        //then
+        Assertions.assertThat(active.kid()).isEqualTo(JwtKeyRing.DEFAULT_KID);
+        Assertions.assertThat(keyRing.resolve(null)).isSameAs(keyRing.defaultKey());
+        Assertions.assertThatThrownBy(() -> keyRing.resolve("unknown")).isInstanceOf(SignatureException.class);
+    }
+
+    @Test
+    public void testReloadSwitchesActiveKey() throws Exception {
+
+        //given
+        Path file = dir.resolve("keys.properties");
+        write(file, "active=k1\nkeys.k1=" + key(1) + "\n", 1_000);
+        JwtKeyRing keyRing = new JwtKeyRing(JwtFixtures.SECRET, "", file.toString(), events::add);
+        Assertions.assertThat(keyRing.active().kid()).isEqualTo("k1");
+
+        //when
+        write(file, "active=k2\nkeys.k1=" + key(1) + "\nkeys.k2=" + key(2) + "\n", 2_000);
+        keyRing.reload();
+
+        //then
+        Assertions.assertThat(keyRing.active().kid()).isEqualTo("k2");
+        //이전 키로 서명된 토큰도 계속 검증된다.
+        Assertions.assertThat(keyRing.resolve("k1").kid()).isEqualTo("k1");
+        Assertions.assertThat(events).isEmpty();
+    }
+
+    @Test
+    public void testRetiredKeysAreDroppedAndPublished() throws Exception {
+
+        //given
+        Path file = dir.resolve("keys.properties");
+        write(file, "active=k2\nkeys.k1=" + key(1) + "\nkeys.k1.not-after=" + Instant.now().minusSeconds(1)
+                + "\nkeys.k2=" + key(2) + "\n", 1_000);
+        JwtKeyRing keyRing = new JwtKeyRing(JwtFixtures.SECRET, "", file.toString(), events::add);
+        Assertions.assertThat(keyRing.kids()).containsExactlyInAnyOrder(JwtKeyRing.DEFAULT_KID, "k2");
+        Assertions.assertThatThrownBy(() -> keyRing.resolve("k1")).isInstanceOf(SignatureException.class);
+        Assertions.assertThat(events).isEmpty();
+
+        //when
+        //파일에서 키를 빼면 제거 이벤트
+        write(file, "active=default\n", 2_000);
+        keyRing.reload();
+
+        //then
+        Assertions.assertThat(events).containsExactly(new JwtKeysRemovedEvent(Set.of("k2")));
+    }
+
+    @Test
+    public void testInvalidFileKeepsCurrentKeys() throws Exception {
+
+        //given
+        Path file = dir.resolve("keys.properties");
+        write(file, "active=k1\nkeys.k1=" + key(1) + "\n", 1_000);
+        JwtKeyRing keyRing = new JwtKeyRing(JwtFixtures.SECRET, "", file.toString(), events::add);
+
+        //when
+        write(file, "active=missing\nkeys.k1=" + key(1) + "\n", 2_000);
+        keyRing.reload();
+
+        //then
+        Assertions.assertThat(keyRing.active().kid()).isEqualTo("k1");
+    }
+
+    @Test
+    public void testDefaultKeyRetiresAfterNotAfter() throws Exception {
+
+        //given
+        Path file = dir.resolve("keys.properties");
+        write(file, "active=k1\nkeys.k1=" + key(1) + "\n", 1_000);
+        String defaultNotAfter = Instant.now().minusSeconds(1).toString();
+
+        //when
+        JwtKeyRing keyRing = new JwtKeyRing(JwtFixtures.SECRET, defaultNotAfter, file.toString(), events::add);
+
+        //then
+        //파일 키가 서명을 넘겨받았으므로 default 키는 빠지고, kid 없는 토큰도 더 이상 검증하지 않는다.
+        Assertions.assertThat(keyRing.kids()).containsExactly("k1");
+        Assertions.assertThatThrownBy(() -> keyRing.resolve(JwtKeyRing.DEFAULT_KID)).isInstanceOf(SignatureException.class);
+        Assertions.assertThatThrownBy(() -> keyRing.resolve(null)).isInstanceOf(SignatureException.class);
+    }
+
+    private static String key(int seed) {
+        byte[] bytes = new byte[64];
+        Arrays.fill(bytes, (byte) seed);
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+
+    private static void write(Path file, String content, long modified) throws IOException {
+        Files.writeString(file, content);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(modified));
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.demo.util;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+class JwtMinterTest {
+
+    private final JwtKeyRing keyRing = JwtFixtures.keyRing();
+    private final JwtParser parser = Jwts.parserBuilder().setSigningKeyResolver(keyRing.resolver()).build();
+    private final JwtMinter minter = new JwtMinter();
+
+    @Test
+    public void testAccessTokenMatchesJjwtBuilder() throws Exception {
+
+        //given
+        JwtKeyRing.SigningKey signingKey = keyRing.active();
+        long issuedAt = 1_700_000_000L;
+        long authTime = issuedAt - 600;
+        long expiresAt = issuedAt + 120;
+        String built = Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, signingKey.kid())
+                .claim("role", "ROLE_user,ROLE_admin")
+                .setSubject("username")
+                .setIssuedAt(new Date(issuedAt * 1000))
+                .claim("auth_time", authTime)
+                .signWith(signingKey.key(), SignatureAlgorithm.HS512)
+                .setExpiration(new Date(expiresAt * 1000))
+                .compact();
+
+        //when
+        String minted = minter.accessToken(signingKey, "username", "ROLE_user,ROLE_admin", issuedAt, authTime, expiresAt);
+
+        //then
+        Assertions.assertThat(minted).isEqualTo(built);
+    }
+
+    @Test
+    public void testEscapedUsernameParsesWithJjwt() throws Exception {
+
+        //given
+        long now = System.currentTimeMillis() / 1000;
+        String username = "quote\"back\\slash\n한글😀";
+
+        //when
+        Jws<Claims> access = parser.parseClaimsJws(
+                minter.accessToken(keyRing.active(), username, "ROLE_user", now, now, now + 60));
+        Jws<Claims> refresh = parser.parseClaimsJws(
+                minter.refreshToken(keyRing.active(), username, -1L, now, now + 60));
+
+        //then
+        Assertions.assertThat(access.getHeader().getKeyId()).isEqualTo(JwtKeyRing.DEFAULT_KID);
+        Assertions.assertThat(access.getBody().getSubject()).isEqualTo(username);
+        Assertions.assertThat(access.getBody().get("role")).isEqualTo("ROLE_user");
+        Assertions.assertThat(access.getBody().getExpiration()).isEqualTo(new Date((now + 60) * 1000));
+        Assertions.assertThat(refresh.getBody().getSubject()).isEqualTo(username);
+        Assertions.assertThat(refresh.getBody().getId()).isEqualTo(Long.toHexString(-1L));
+        Assertions.assertThat(refresh.getBody().getIssuedAt()).isEqualTo(new Date(now * 1000));
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.demo.util;
+
+import com.example.demo.dto.VerifiedToken;
+import com.example.demo.dto.VerifiedToken.FailureReason;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Date;
+
+class JwtVerifierTest {
+
+    private final JwtKeyRing keyRing = JwtFixtures.keyRing();
+    private final JwtMinter minter = new JwtMinter();
+    private final JwtVerifier verifier = new JwtVerifier(keyRing);
+
+    private static long now() {
+        return System.currentTimeMillis() / 1000;
+    }
+
+    @Test
+    public void testVerifiesOwnTokensWithoutJjwt() throws Exception {
+
+        //given
+        long now = now();
+        String token = minter.accessToken(keyRing.active(), "username", "ROLE_user,ROLE_admin", now, now - 600, now + 60);
+
+        //when
+        VerifiedToken verified = verifier.verify(token);
+
+        //then
+        Assertions.assertThat(verified.isValid()).isTrue();
+        Assertions.assertThat(verified.getSubject()).isEqualTo("username");
+        Assertions.assertThat(verified.getRoleSet()).isSameAs(AuthorityRegistry.parseClaim("ROLE_user,ROLE_admin"));
+        Assertions.assertThat(verified.getIssuedAt()).isEqualTo(now);
+        Assertions.assertThat(verified.getAuthTime()).isEqualTo(now - 600);
+        Assertions.assertThat(verified.getExpiresAt()).isEqualTo((now + 60) * 1000);
+    }
+
+    @Test
+    public void testInvalidTokensReturnFailureReason() throws Exception {
+
+        //given
+        long now = now();
+        String token = minter.accessToken(keyRing.active(), "username", "ROLE_user", now, now, now + 60);
+        String expired = minter.accessToken(keyRing.active(), "username", "ROLE_user", now - 120, now - 120, now - 60);
+        //서명 중간 글자 하나를 바꾼다. (마지막 글자는 남는 비트만 바뀔 수 있다)
+        int index = token.lastIndexOf('.') + 5;
+        String tampered = token.substring(0, index) + (token.charAt(index) == 'A' ? 'B' : 'A') + token.substring(index + 1);
+
+        //when
+        VerifiedToken badSignature = verifier.verify(tampered);
+        VerifiedToken expiredToken = verifier.verify(expired);
+
+        //then
+        Assertions.assertThat(badSignature.getFailureReason()).isEqualTo(FailureReason.BAD_SIGNATURE);
+        Assertions.assertThat(expiredToken.getFailureReason()).isEqualTo(FailureReason.EXPIRED);
+        Assertions.assertThat(verifier.verify("null").getFailureReason()).isEqualTo(FailureReason.MALFORMED);
+        Assertions.assertThat(verifier.verify("a.b.c").getFailureReason()).isEqualTo(FailureReason.MALFORMED);
+        Assertions.assertThat(verifier.verify("헤더.본문.서명").getFailureReason()).isEqualTo(FailureReason.MALFORMED);
+    }
+
+    @Test
+    public void testForeignTokensFallBackToJjwt() throws Exception {
+
+        //given
+        //kid 없이 typ가 들어간 헤더
+        String foreign = Jwts.builder()
+                .setHeaderParam("typ", "JWT")
+                .setSubject("username")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(keyRing.defaultKey().key(), SignatureAlgorithm.HS512)
+                .compact();
+        //escape가 필요한 subject
+        long now = now();
+        String escaped = minter.accessToken(keyRing.active(), "quote\"name", "ROLE_user", now, now, now + 60);
+
+        //when
+        VerifiedToken foreignResult = verifier.verify(foreign);
+        VerifiedToken escapedResult = verifier.verify(escaped);
+
+        //then
+        Assertions.assertThat(foreignResult).isNull();
+        Assertions.assertThat(escapedResult).isNull();
+    }
+
+    @Test
+    public void testTokensWithoutKidRejectedAfterDefaultNotAfter() throws Exception {
+
+        //given
+        //키 교체 전에 발급된 토큰 (kid 없음)
+        String withoutKid = Jwts.builder()
+                .setSubject("username")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(keyRing.defaultKey().key(), SignatureAlgorithm.HS512)
+                .compact();
+        JwtKeyRing retired = new JwtKeyRing(JwtFixtures.SECRET, Instant.now().minusSeconds(1).toString(), "", event -> { });
+
+        //when
+        VerifiedToken beforeNotAfter = verifier.verify(withoutKid);
+        VerifiedToken afterNotAfter = new JwtVerifier(retired).verify(withoutKid);
+
+        //then
+        Assertions.assertThat(beforeNotAfter.isValid()).isTrue();
+        //default 키가 아직 active여도 kid 없는 토큰은 받지 않는다.
+        Assertions.assertThat(afterNotAfter.getFailureReason()).isEqualTo(FailureReason.BAD_SIGNATURE);
+    }
+}